@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+plugins {
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+dependencies {
+    jmh(project(":core"))
+    jmh(project(":gson"))
+    jmh("com.google.code.gson:gson:2.9.0")
+}
+
+jmh {
+    // Throughput alone does not show allocation regressions on large configs.
+    profilers.add("gc")
+    benchmarkMode.add("thrpt")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
+
+tasks.withType<Jar> {
+    archiveFileName.set("configuration-benchmarks.jar")
+}
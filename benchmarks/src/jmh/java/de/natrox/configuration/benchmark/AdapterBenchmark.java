@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration.benchmark;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import de.natrox.configuration.ConfigAdapter;
+import de.natrox.configuration.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AdapterBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int keys;
+
+    @Param({"FLAT", "WIDE", "DEEP"})
+    private ConfigGenerator.Shape shape;
+
+    private ConfigAdapter adapter;
+    private Configuration config;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.adapter = new ConfigAdapter();
+        this.config = ConfigGenerator.generate(this.keys, this.shape);
+        StringWriter writer = new StringWriter();
+        this.adapter.write(new JsonWriter(writer), this.config);
+        this.json = writer.toString();
+    }
+
+    @Benchmark
+    public Configuration read() throws IOException {
+        return this.adapter.read(new JsonReader(new StringReader(this.json)));
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        this.adapter.write(new JsonWriter(Writer.nullWriter()), this.config);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration.benchmark;
+
+import de.natrox.configuration.Configuration;
+
+import java.util.Random;
+
+final class ConfigGenerator {
+
+    private ConfigGenerator() {
+        throw new UnsupportedOperationException();
+    }
+
+    static Configuration generate(int keys, Shape shape) {
+        Configuration config = new Configuration();
+        int fanOut = shape.fanOut(keys);
+        int depth = depth(keys, fanOut);
+        Random random = new Random(keys);
+        for (int i = 0; i < keys; i++)
+            config.node(path(i, fanOut, depth)).set(value(i, random));
+        return config;
+    }
+
+    static String[][] samplePaths(int keys, Shape shape, int count) {
+        int fanOut = shape.fanOut(keys);
+        int depth = depth(keys, fanOut);
+        Random random = new Random(count);
+        String[][] paths = new String[count][];
+        for (int i = 0; i < count; i++)
+            paths[i] = path(random.nextInt(keys), fanOut, depth);
+        return paths;
+    }
+
+    private static int depth(int keys, int fanOut) {
+        int depth = 1;
+        long capacity = fanOut;
+        while (capacity < keys) {
+            capacity *= fanOut;
+            depth++;
+        }
+        return depth;
+    }
+
+    private static String[] path(int index, int fanOut, int depth) {
+        String[] path = new String[depth];
+        for (int level = depth - 1; level >= 0; level--) {
+            path[level] = "k" + (index % fanOut);
+            index /= fanOut;
+        }
+        return path;
+    }
+
+    private static Object value(int index, Random random) {
+        return switch (index & 3) {
+            case 0 -> random.nextInt(100_000);
+            case 1 -> random.nextDouble();
+            case 2 -> "value-" + random.nextInt(1_000);
+            default -> random.nextBoolean();
+        };
+    }
+
+    enum Shape {
+        FLAT(Integer.MAX_VALUE),
+        WIDE(32),
+        DEEP(4);
+
+        private final int fanOut;
+
+        Shape(int fanOut) {
+            this.fanOut = fanOut;
+        }
+
+        int fanOut(int keys) {
+            return Math.min(this.fanOut, Math.max(keys, 2));
+        }
+    }
+}
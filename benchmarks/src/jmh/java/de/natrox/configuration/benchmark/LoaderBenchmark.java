@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration.benchmark;
+
+import de.natrox.configuration.BinaryConfigurationLoader;
+import de.natrox.configuration.Configuration;
+import de.natrox.configuration.GsonConfigurationLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoaderBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int keys;
+
+    @Param({"FLAT", "WIDE", "DEEP"})
+    private ConfigGenerator.Shape shape;
+
+    private Path loadPath;
+    private Path savePath;
+    private Path binaryPath;
+    private GsonConfigurationLoader loadLoader;
+    private GsonConfigurationLoader saveLoader;
+    private BinaryConfigurationLoader binaryLoader;
+    private Configuration config;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.config = ConfigGenerator.generate(this.keys, this.shape);
+        this.loadPath = Files.createTempFile("config-load-", ".json");
+        this.savePath = Files.createTempFile("config-save-", ".json");
+        this.loadLoader = GsonConfigurationLoader.builder().path(this.loadPath).build();
+        this.saveLoader = GsonConfigurationLoader.builder().path(this.savePath).build();
+        this.loadLoader.save(this.config);
+        this.binaryPath = Files.createTempFile("config-load-", ".bin");
+        this.binaryLoader = BinaryConfigurationLoader.builder().path(this.binaryPath).build();
+        this.binaryLoader.save(this.config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.loadPath);
+        Files.deleteIfExists(this.savePath);
+        Files.deleteIfExists(this.binaryPath);
+    }
+
+    @Benchmark
+    public Configuration load() throws IOException {
+        return this.loadLoader.load();
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        this.saveLoader.save(this.config);
+    }
+
+    @Benchmark
+    public Configuration binaryLoad() throws IOException {
+        return this.binaryLoader.load();
+    }
+}
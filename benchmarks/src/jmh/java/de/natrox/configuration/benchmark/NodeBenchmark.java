@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration.benchmark;
+
+import de.natrox.configuration.ConfigNode;
+import de.natrox.configuration.ConfigPath;
+import de.natrox.configuration.Configuration;
+import de.natrox.configuration.PersistentConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NodeBenchmark {
+
+    private static final int SAMPLE_PATHS = 1024;
+
+    @Param({"100", "10000", "1000000"})
+    private int keys;
+
+    @Param({"FLAT", "WIDE", "DEEP"})
+    private ConfigGenerator.Shape shape;
+
+    private Configuration config;
+    private Configuration equalCopy;
+    private PersistentConfiguration persistent;
+    private String[][] paths;
+    private ConfigPath[] configPaths;
+    private ConfigPath.Handle[] handles;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.config = ConfigGenerator.generate(this.keys, this.shape);
+        this.equalCopy = this.config.copy();
+        this.persistent = this.config.toPersistent();
+        this.paths = ConfigGenerator.samplePaths(this.keys, this.shape, SAMPLE_PATHS);
+        this.configPaths = new ConfigPath[SAMPLE_PATHS];
+        this.handles = new ConfigPath.Handle[SAMPLE_PATHS];
+        for (int i = 0; i < SAMPLE_PATHS; i++) {
+            this.configPaths[i] = ConfigPath.of(this.paths[i]);
+            this.handles[i] = this.configPaths[i].bind(this.config);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConfigNode lookup() {
+        String[] path = this.paths[this.cursor++ & (SAMPLE_PATHS - 1)];
+        return this.config.node(path);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConfigNode pathLookup() {
+        return this.config.node(this.configPaths[this.cursor++ & (SAMPLE_PATHS - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ConfigNode handleLookup() {
+        return this.handles[this.cursor++ & (SAMPLE_PATHS - 1)].node();
+    }
+
+    @Benchmark
+    public Configuration copy() {
+        return this.config.copy();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PersistentConfiguration persistentCopyAndSet() {
+        PersistentConfiguration copy = this.persistent.copy();
+        copy.set(this.configPaths[this.cursor++ & (SAMPLE_PATHS - 1)], "override");
+        return copy;
+    }
+
+    @Benchmark
+    public boolean equalsNode() {
+        return this.config.equalsNode(this.equalCopy);
+    }
+}
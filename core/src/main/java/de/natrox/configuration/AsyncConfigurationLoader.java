@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.common.validate.Check;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnknownNullability;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AsyncConfigurationLoader implements ConfigurationLoader {
+
+    private final ConfigurationLoader delegate;
+    private final Executor executor;
+    private final Object saveLock;
+    // A queued save that has not started yet, later saves replace its configuration and share its future.
+    private Configuration pendingConfig;
+    private CompletableFuture<Void> pendingSave;
+    private boolean saving;
+
+    public AsyncConfigurationLoader(ConfigurationLoader delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.saveLock = new Object();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Configuration load() throws IOException {
+        return this.delegate.load();
+    }
+
+    @Override
+    public void save(Configuration config) throws IOException {
+        try {
+            this.saveAsync(config).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Configuration> loadAsync() {
+        return this.delegate.loadAsync(this.executor);
+    }
+
+    // The configuration is written when the save runs, callers must not modify it from another thread meanwhile.
+    @Override
+    public CompletableFuture<Void> saveAsync(@NotNull Configuration config) {
+        return this.saveAsync(config, this.executor);
+    }
+
+    // A save that joins an already queued one runs on the executor that queued it.
+    @Override
+    public CompletableFuture<Void> saveAsync(@NotNull Configuration config, @NotNull Executor executor) {
+        synchronized (this.saveLock) {
+            this.pendingConfig = config;
+            if (this.pendingSave != null)
+                return this.pendingSave;
+            CompletableFuture<Void> future = this.pendingSave = new CompletableFuture<>();
+            if (!this.saving) {
+                this.saving = true;
+                try {
+                    executor.execute(this::drainSaves);
+                } catch (RejectedExecutionException e) {
+                    this.saving = false;
+                    this.pendingConfig = null;
+                    this.pendingSave = null;
+                    future.completeExceptionally(e);
+                }
+            }
+            return future;
+        }
+    }
+
+    private void drainSaves() {
+        while (true) {
+            Configuration config;
+            CompletableFuture<Void> future;
+            synchronized (this.saveLock) {
+                if (this.pendingSave == null) {
+                    this.saving = false;
+                    return;
+                }
+                config = this.pendingConfig;
+                future = this.pendingSave;
+                this.pendingConfig = null;
+                this.pendingSave = null;
+            }
+            try {
+                this.delegate.save(config);
+                future.complete(null);
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    public final static class Builder implements ConfigurationLoader.Builder<AsyncConfigurationLoader> {
+
+        private ConfigurationLoader loader;
+        private Executor executor = ConfigExecutors.defaultExecutor();
+
+        public Builder loader(final ConfigurationLoader loader) {
+            this.loader = loader;
+            return this;
+        }
+
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability AsyncConfigurationLoader build() {
+            Check.stateCondition(this.loader == null, "A loader is required.");
+            Check.stateCondition(this.executor == null, "An executor is required.");
+            return new AsyncConfigurationLoader(this.loader, this.executor);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.exception.ConfigParseException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Layout: magic, version, key table (count, length-prefixed UTF-8 keys), then the root node.
+// A node is a tagged value, its child count and per child the key index followed by the child node.
+final class BinaryCodec {
+
+    static final int MAGIC = 0x4E584342;
+    static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BIG_DECIMAL = 12;
+    private static final byte LIST = 13;
+    private static final byte MAP = 14;
+
+    private BinaryCodec() {
+        throw new UnsupportedOperationException();
+    }
+
+    static void encode(ConfigNode root, DataOutputStream out) throws IOException {
+        Map<String, Integer> keys = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        collectKeys(root, keys, table);
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarInt(out, table.size());
+        for (String key : table)
+            writeString(out, key);
+        writeNode(out, root, keys);
+    }
+
+    static Configuration decode(ByteBuffer in) {
+        try {
+            if (in.getInt() != MAGIC)
+                throw new ConfigParseException("Data is not a binary configuration.");
+            byte version = in.get();
+            if (version != VERSION)
+                throw new ConfigParseException("Unsupported binary configuration version " + version + ".");
+            String[] table = new String[readLength(in)];
+            for (int i = 0; i < table.length; i++)
+                table[i] = readString(in);
+            Configuration config = new Configuration();
+            readNode(in, config, table);
+            return config;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new ConfigParseException("Binary configuration is truncated or corrupt.", e);
+        }
+    }
+
+    private static void collectKeys(ConfigNode node, Map<String, Integer> keys, List<String> table) {
+        for (ConfigNode subNode : node.subNodes().values()) {
+            if (keys.putIfAbsent(subNode.id(), table.size()) == null)
+                table.add(subNode.id());
+            collectKeys(subNode, keys, table);
+        }
+    }
+
+    private static void writeNode(DataOutputStream out, ConfigNode node, Map<String, Integer> keys) throws IOException {
+        writeValue(out, node.get());
+        Map<String, ConfigNode> subNodes = node.subNodes();
+        writeVarInt(out, subNodes.size());
+        for (ConfigNode subNode : subNodes.values()) {
+            writeVarInt(out, keys.get(subNode.id()));
+            writeNode(out, subNode, keys);
+        }
+    }
+
+    private static void readNode(ByteBuffer in, ConfigNode node, String[] table) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL -> {
+            }
+            case TRUE -> node.set(true);
+            case FALSE -> node.set(false);
+            case INT -> node.set(unZigZag(readVarInt(in)));
+            case LONG -> node.set(unZigZag(readVarLong(in)));
+            case DOUBLE -> node.set(in.getDouble());
+            default -> node.set(readValue(in, tag));
+        }
+        int children = readLength(in);
+        for (int i = 0; i < children; i++) {
+            ConfigNode subNode = new ConfigNode(table[readVarInt(in)]);
+            readNode(in, subNode, table);
+            node.addNode(subNode);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null)
+            out.writeByte(NULL);
+        else if (value instanceof Boolean)
+            out.writeByte((boolean) value ? TRUE : FALSE);
+        else if (value instanceof Integer) {
+            out.writeByte(INT);
+            writeVarInt(out, zigZag((int) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            writeVarLong(out, zigZag((long) value));
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((float) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((short) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((char) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+            writeVarInt(out, zigZag(((BigDecimal) value).scale()));
+        } else if (value instanceof Collection<?>) {
+            out.writeByte(LIST);
+            writeVarInt(out, ((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value)
+                writeValue(out, element);
+        } else if (value instanceof Map<?, ?>) {
+            out.writeByte(MAP);
+            writeVarInt(out, ((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else
+            throw new ConfigException("Value (" + value.getClass() + ") can not be written as binary configuration.");
+    }
+
+    private static Object readValue(ByteBuffer in, byte tag) {
+        return switch (tag) {
+            case NULL -> null;
+            case TRUE -> true;
+            case FALSE -> false;
+            case BYTE -> in.get();
+            case SHORT -> in.getShort();
+            case CHAR -> in.getChar();
+            case INT -> unZigZag(readVarInt(in));
+            case LONG -> unZigZag(readVarLong(in));
+            case FLOAT -> in.getFloat();
+            case DOUBLE -> in.getDouble();
+            case STRING -> readString(in);
+            case BIG_INTEGER -> new BigInteger(readBytes(in));
+            case BIG_DECIMAL -> new BigDecimal(new BigInteger(readBytes(in)), unZigZag(readVarInt(in)));
+            case LIST -> {
+                int size = readLength(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    list.add(readValue(in, in.get()));
+                yield list;
+            }
+            case MAP -> {
+                int size = readLength(in);
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    map.put(key, readValue(in, in.get()));
+                }
+                yield map;
+            }
+            default -> throw new ConfigParseException("Unknown value tag " + tag + " in binary configuration.");
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readLength(in);
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[readLength(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new ConfigParseException("Malformed variable length integer in binary configuration.");
+    }
+
+    // Every counted element takes at least one byte, so no count or length can exceed the remaining input.
+    private static int readLength(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.remaining())
+            throw new ConfigParseException("Length " + length + " in binary configuration exceeds the remaining " + in.remaining() + " bytes.");
+        return length;
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new ConfigParseException("Malformed variable length integer in binary configuration.");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
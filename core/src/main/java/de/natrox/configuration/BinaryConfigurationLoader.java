@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.common.validate.Check;
+import org.jetbrains.annotations.UnknownNullability;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BinaryConfigurationLoader implements ConfigurationLoader {
+
+    private final Path configPath;
+
+    public BinaryConfigurationLoader(final Path configPath) {
+        this.configPath = configPath;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Configuration load() throws IOException {
+        return BinaryCodec.decode(ByteBuffer.wrap(Files.readAllBytes(this.configPath)));
+    }
+
+    @Override
+    public void save(Configuration config) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.configPath)))) {
+            BinaryCodec.encode(config, out);
+        }
+    }
+
+    public final static class Builder implements ConfigurationLoader.Builder<BinaryConfigurationLoader> {
+
+        private Path configPath;
+
+        public Builder path(final Path configPath) {
+            this.configPath = configPath;
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability BinaryConfigurationLoader build() {
+            Check.stateCondition(this.configPath == null, "A path is required.");
+            return new BinaryConfigurationLoader(this.configPath);
+        }
+    }
+}
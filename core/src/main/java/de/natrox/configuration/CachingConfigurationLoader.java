@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.common.validate.Check;
+import org.jetbrains.annotations.UnknownNullability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+
+public class CachingConfigurationLoader implements ConfigurationLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingConfigurationLoader.class);
+    private static final int SIDECAR_MAGIC = 0x4E584353;
+    private static final int HEADER_SIZE = 4 + 8 + 8 + 4;
+
+    private final ConfigurationLoader delegate;
+    private final Path configPath;
+    private final Path cachePath;
+
+    public CachingConfigurationLoader(ConfigurationLoader delegate, Path configPath, Path cachePath) {
+        this.delegate = delegate;
+        this.configPath = configPath;
+        this.cachePath = cachePath;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // The sidecar is only used while size, modification time and checksum of the source still match.
+    @Override
+    public Configuration load() throws IOException {
+        SourceStamp stamp = SourceStamp.of(this.configPath);
+        if (Files.isRegularFile(this.cachePath)) {
+            try {
+                ByteBuffer cached = ByteBuffer.wrap(Files.readAllBytes(this.cachePath));
+                if (cached.remaining() >= HEADER_SIZE && cached.getInt() == SIDECAR_MAGIC
+                    && stamp.equals(new SourceStamp(cached.getLong(), cached.getLong(), cached.getInt())))
+                    return BinaryCodec.decode(cached.slice());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Ignoring unreadable configuration cache " + this.cachePath + ".", e);
+            }
+        }
+        Configuration config = this.delegate.load();
+        this.writeCache(config, stamp);
+        return config;
+    }
+
+    // The sidecar is built from the saved file, not from the given configuration, so a cache hit returns the same tree
+    // as a parse: the format may drop empty nodes or narrow value types that the binary encoding would keep.
+    @Override
+    public void save(Configuration config) throws IOException {
+        this.delegate.save(config);
+        SourceStamp stamp = SourceStamp.of(this.configPath);
+        this.writeCache(this.delegate.load(), stamp);
+    }
+
+    // A missing or stale cache only costs the next startup a parse, so write failures are not propagated.
+    private void writeCache(Configuration config, SourceStamp stamp) {
+        Path temp = null;
+        try {
+            Path target = this.cachePath.toAbsolutePath();
+            temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SIDECAR_MAGIC);
+                out.writeLong(stamp.size());
+                out.writeLong(stamp.lastModified());
+                out.writeInt(stamp.checksum());
+                BinaryCodec.encode(config, out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed to write configuration cache " + this.cachePath + ".", e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+
+                }
+            }
+        }
+    }
+
+    public final static class Builder implements ConfigurationLoader.Builder<CachingConfigurationLoader> {
+
+        private ConfigurationLoader loader;
+        private Path configPath;
+        private Path cachePath;
+
+        public Builder loader(final ConfigurationLoader loader) {
+            this.loader = loader;
+            return this;
+        }
+
+        public Builder path(final Path configPath) {
+            this.configPath = configPath;
+            return this;
+        }
+
+        public Builder cachePath(final Path cachePath) {
+            this.cachePath = cachePath;
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability CachingConfigurationLoader build() {
+            Check.stateCondition(this.loader == null, "A loader is required.");
+            Check.stateCondition(this.configPath == null, "A path is required.");
+            Path cachePath = this.cachePath;
+            if (cachePath == null)
+                cachePath = this.configPath.resolveSibling(this.configPath.getFileName() + ".bin");
+            return new CachingConfigurationLoader(this.loader, this.configPath, cachePath);
+        }
+    }
+}
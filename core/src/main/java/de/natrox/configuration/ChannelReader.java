@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class ChannelReader extends Reader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars;
+    private ByteBuffer bytes;
+    private boolean endOfInput;
+    private boolean flushed;
+    private boolean started;
+
+    ChannelReader(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.chars = CharBuffer.allocate(bufferSize).flip();
+        this.bytes = ByteBuffer.allocate(bufferSize).flip();
+    }
+
+    // Files are read in bulk into a reused buffer and decoded as UTF-8. They are never mapped: a mapping faults
+    // when another writer truncates the file during the read, and it keeps the file busy until it is collected.
+    public static @NotNull ChannelReader open(@NotNull Path path) throws IOException {
+        return new ChannelReader(FileChannel.open(path, StandardOpenOption.READ), BUFFER_SIZE);
+    }
+
+    @Override
+    public int read(char @NotNull [] buffer, int offset, int length) throws IOException {
+        if (this.bytes == null)
+            throw new IOException("Reader is closed.");
+        if (length == 0)
+            return 0;
+        if (!this.chars.hasRemaining() && !this.fill())
+            return -1;
+        if (!this.started) {
+            this.started = true;
+            if (this.chars.get(this.chars.position()) == '\uFEFF') {
+                this.chars.get();
+                if (!this.chars.hasRemaining() && !this.fill())
+                    return -1;
+            }
+        }
+        int count = Math.min(length, this.chars.remaining());
+        this.chars.get(buffer, offset, count);
+        return count;
+    }
+
+    private boolean fill() throws IOException {
+        this.chars.clear();
+        while (this.chars.position() == 0 && !this.flushed) {
+            CoderResult result = this.decoder.decode(this.bytes, this.chars, this.endOfInput);
+            if (result.isError())
+                result.throwException();
+            if (result.isUnderflow()) {
+                if (this.endOfInput) {
+                    this.decoder.flush(this.chars);
+                    this.flushed = true;
+                } else
+                    this.refill();
+            }
+        }
+        this.chars.flip();
+        return this.chars.hasRemaining();
+    }
+
+    // Bytes of a sequence split at the end of the buffer are kept for the next decode.
+    private void refill() throws IOException {
+        this.bytes.compact();
+        int read = this.channel.read(this.bytes);
+        this.bytes.flip();
+        if (read < 0)
+            this.endOfInput = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.bytes = null;
+        this.channel.close();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public record ConfigChange(@NotNull ConfigPath path, @Nullable Object oldValue, @Nullable Object newValue) {
+
+    public @NotNull Kind kind() {
+        if (this.oldValue == null)
+            return Kind.ADDED;
+        if (this.newValue == null)
+            return Kind.REMOVED;
+        return Kind.CHANGED;
+    }
+
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        CHANGED
+    }
+}
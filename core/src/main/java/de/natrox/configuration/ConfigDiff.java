@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public final class ConfigDiff {
+
+    private final List<ConfigChange> added;
+    private final List<ConfigChange> removed;
+    private final List<ConfigChange> changed;
+
+    private ConfigDiff(List<ConfigChange> added, List<ConfigChange> removed, List<ConfigChange> changed) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.changed = Collections.unmodifiableList(changed);
+    }
+
+    public static @NotNull ConfigDiff between(@NotNull ConfigNode oldNode, @NotNull ConfigNode newNode) {
+        List<ConfigChange> added = new ArrayList<>();
+        List<ConfigChange> removed = new ArrayList<>();
+        List<ConfigChange> changed = new ArrayList<>();
+        walk(ConfigPath.root(), oldNode, newNode, change -> {
+            switch (change.kind()) {
+                case ADDED -> added.add(change);
+                case REMOVED -> removed.add(change);
+                case CHANGED -> changed.add(change);
+            }
+        });
+        return new ConfigDiff(added, removed, changed);
+    }
+
+    static void walk(ConfigPath base, @Nullable ConfigNode oldNode, @Nullable ConfigNode newNode, Consumer<ConfigChange> sink) {
+        new Walker(base, sink).compare(oldNode, newNode);
+    }
+
+    public @NotNull List<ConfigChange> added() {
+        return this.added;
+    }
+
+    public @NotNull List<ConfigChange> removed() {
+        return this.removed;
+    }
+
+    public @NotNull List<ConfigChange> changed() {
+        return this.changed;
+    }
+
+    public @NotNull List<ConfigChange> all() {
+        List<ConfigChange> all = new ArrayList<>(this.added.size() + this.removed.size() + this.changed.size());
+        all.addAll(this.added);
+        all.addAll(this.removed);
+        all.addAll(this.changed);
+        return all;
+    }
+
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigDiff{added=" + this.added + ", removed=" + this.removed + ", changed=" + this.changed + "}";
+    }
+
+    // Changes are tracked per value, empty nodes on either side are not reported as they are never saved.
+    private static final class Walker {
+
+        private final List<String> keys;
+        private final Consumer<ConfigChange> sink;
+
+        private Walker(ConfigPath base, Consumer<ConfigChange> sink) {
+            this.keys = new ArrayList<>(base.size() + 8);
+            for (int i = 0; i < base.size(); i++)
+                this.keys.add(base.key(i));
+            this.sink = sink;
+        }
+
+        private void compare(@Nullable ConfigNode oldNode, @Nullable ConfigNode newNode) {
+            if (oldNode == newNode)
+                return;
+            if (newNode == null) {
+                this.collect(oldNode, true);
+                return;
+            }
+            if (oldNode == null) {
+                this.collect(newNode, false);
+                return;
+            }
+            Object oldValue = oldNode.get();
+            Object newValue = newNode.get();
+            if (!Objects.equals(oldValue, newValue))
+                this.sink.accept(new ConfigChange(this.path(), oldValue, newValue));
+            for (ConfigNode oldSubNode : oldNode.subNodes().values()) {
+                this.keys.add(oldSubNode.id());
+                this.compare(oldSubNode, newNode.child(oldSubNode.id()));
+                this.keys.remove(this.keys.size() - 1);
+            }
+            for (ConfigNode newSubNode : newNode.subNodes().values()) {
+                if (oldNode.hasSubNode(newSubNode.id()))
+                    continue;
+                this.keys.add(newSubNode.id());
+                this.collect(newSubNode, false);
+                this.keys.remove(this.keys.size() - 1);
+            }
+        }
+
+        private void collect(ConfigNode node, boolean old) {
+            Object value = node.get();
+            if (value != null)
+                this.sink.accept(old ? new ConfigChange(this.path(), value, null) : new ConfigChange(this.path(), null, value));
+            for (ConfigNode subNode : node.subNodes().values()) {
+                this.keys.add(subNode.id());
+                this.collect(subNode, old);
+                this.keys.remove(this.keys.size() - 1);
+            }
+        }
+
+        private ConfigPath path() {
+            return ConfigPath.trusted(this.keys.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Listeners are indexed by path segments, so a change only visits the entries along its own path
+// (and, for structural changes, the entries below it) instead of every registered listener.
+final class ConfigListeners {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigListeners.class);
+
+    private final Entry root;
+    private final AtomicInteger size;
+
+    ConfigListeners() {
+        this.root = new Entry();
+        this.size = new AtomicInteger();
+    }
+
+    // Registering and unregistering share the monitor, so an entry is never pruned while a listener is being added to it.
+    synchronized @NotNull ListenerRegistration register(@NotNull ConfigPath path, boolean subtree, @NotNull ConfigListener listener) {
+        Entry entry = this.root;
+        for (int i = 0; i < path.size(); i++) {
+            Entry parent = entry;
+            String key = path.key(i);
+            entry = entry.children.computeIfAbsent(key, k -> new Entry(parent, k));
+        }
+        (subtree ? entry.subtree : entry.exact).add(listener);
+        this.size.incrementAndGet();
+        return new Registration(entry, subtree, listener);
+    }
+
+    boolean isEmpty() {
+        return this.size.get() == 0;
+    }
+
+    void dispatch(@NotNull ConfigChange change) {
+        this.dispatchBelow(this.root, 0, change);
+    }
+
+    void dispatch(@NotNull ConfigPath path, @Nullable ConfigNode oldNode, @Nullable ConfigNode newNode) {
+        Entry entry = this.root;
+        List<ConfigListener> above = null;
+        for (int i = 0; i < path.size() && entry != null; i++) {
+            if (!entry.subtree.isEmpty()) {
+                if (above == null)
+                    above = new ArrayList<>();
+                above.addAll(entry.subtree);
+            }
+            entry = entry.children.get(path.key(i));
+        }
+        if (above == null) {
+            if (entry != null)
+                this.visit(entry, path, oldNode, newNode);
+            return;
+        }
+        List<ConfigListener> listeners = above;
+        Entry below = entry;
+        ConfigDiff.walk(path, oldNode, newNode, change -> {
+            notify(listeners, change);
+            if (below != null)
+                this.dispatchBelow(below, path.size(), change);
+        });
+    }
+
+    private void visit(Entry entry, ConfigPath path, @Nullable ConfigNode oldNode, @Nullable ConfigNode newNode) {
+        if (oldNode == newNode)
+            return;
+        if (!entry.subtree.isEmpty()) {
+            ConfigDiff.walk(path, oldNode, newNode, change -> this.dispatchBelow(entry, path.size(), change));
+            return;
+        }
+        if (!entry.exact.isEmpty()) {
+            Object oldValue = oldNode == null ? null : oldNode.get();
+            Object newValue = newNode == null ? null : newNode.get();
+            if (!Objects.equals(oldValue, newValue))
+                notify(entry.exact, new ConfigChange(path, oldValue, newValue));
+        }
+        for (Map.Entry<String, Entry> child : entry.children.entrySet()) {
+            String key = child.getKey();
+            this.visit(child.getValue(), path.child(key),
+                oldNode == null ? null : oldNode.child(key),
+                newNode == null ? null : newNode.child(key));
+        }
+    }
+
+    private void dispatchBelow(Entry entry, int depth, ConfigChange change) {
+        ConfigPath path = change.path();
+        for (int i = depth; i < path.size(); i++) {
+            notify(entry.subtree, change);
+            entry = entry.children.get(path.key(i));
+            if (entry == null)
+                return;
+        }
+        notify(entry.subtree, change);
+        notify(entry.exact, change);
+    }
+
+    // Listeners run after the tree has changed, so a failing one is logged instead of aborting the change
+    // and the listeners after it.
+    private static void notify(List<ConfigListener> listeners, ConfigChange change) {
+        for (ConfigListener listener : listeners) {
+            try {
+                listener.changed(change);
+            } catch (RuntimeException e) {
+                LOGGER.error("Listener failed to handle change of " + change.path() + ".", e);
+            }
+        }
+    }
+
+    private synchronized void unregister(Entry entry, boolean subtree, ConfigListener listener) {
+        if (!(subtree ? entry.subtree : entry.exact).remove(listener))
+            return;
+        this.size.decrementAndGet();
+        while (entry.parent != null && entry.isEmpty()) {
+            entry.parent.children.remove(entry.key, entry);
+            entry = entry.parent;
+        }
+    }
+
+    int entries() {
+        return this.root.count();
+    }
+
+    private static final class Entry {
+
+        private final @Nullable Entry parent;
+        private final @Nullable String key;
+        private final Map<String, Entry> children = new ConcurrentHashMap<>();
+        private final List<ConfigListener> exact = new CopyOnWriteArrayList<>();
+        private final List<ConfigListener> subtree = new CopyOnWriteArrayList<>();
+
+        private Entry() {
+            this(null, null);
+        }
+
+        private Entry(@Nullable Entry parent, @Nullable String key) {
+            this.parent = parent;
+            this.key = key;
+        }
+
+        private boolean isEmpty() {
+            return this.children.isEmpty() && this.exact.isEmpty() && this.subtree.isEmpty();
+        }
+
+        private int count() {
+            int count = 1;
+            for (Entry child : this.children.values())
+                count += child.count();
+            return count;
+        }
+    }
+
+    private final class Registration implements ListenerRegistration {
+
+        private final Entry entry;
+        private final boolean subtree;
+        private final ConfigListener listener;
+
+        private Registration(Entry entry, boolean subtree, ConfigListener listener) {
+            this.entry = entry;
+            this.subtree = subtree;
+            this.listener = listener;
+        }
+
+        @Override
+        public void unregister() {
+            ConfigListeners.this.unregister(this.entry, this.subtree, this.listener);
+        }
+    }
+}
@@ -16,100 +16,286 @@
 
 package de.natrox.configuration;
 
-import de.natrox.common.validate.Check;
+import de.natrox.configuration.exception.ConfigException;
 import de.natrox.configuration.exception.ConfigParseException;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import de.natrox.configuration.serialize.TypeCapabilities;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class ConfigNode {
 
-    private final String id;
-    private final Map<String, ConfigNode> subNodes;
+    private static final Object PENDING_BELOW = new Object();
+    private static final Object LOADING = new Object();
+    private static final VarHandle VALUE;
+    private static final VarHandle PARENT;
+    // Structural changes of concurrent nodes lock the stripes of every node involved, in stripe order.
+    private static final Object[] LOCKS = new Object[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 8 - 1) << 1];
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(ConfigNode.class, "value", Object.class);
+            PARENT = lookup.findVarHandle(ConfigNode.class, "parentNode", ConfigNode.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        for (int i = 0; i < LOCKS.length; i++)
+            LOCKS[i] = new Object();
+    }
+
+    // Plain nodes keep no child map for leaves, a copy-on-write array for a few children and a HashMap
+    // beyond that. Concurrent nodes always use a ConcurrentHashMap.
+    private static final int INLINE_CHILDREN = 8;
+
+    // Replaced by the equal, interned key of the Configuration the node joins, see internIds.
+    private String id;
+    private Object subNodes;
+    private final boolean concurrent;
     private ConfigNode parentNode;
     private Object value;
+    // Payload of a primitive value, only meaningful while value is a Primitive marker.
+    private long bits;
+    // Merkle hash of the value and all sub nodes, kept up to date along the parent chain of plain nodes.
+    private long hash;
+    // Published racily like String.hash, see Conversions.
+    private Conversions conversions;
+    // Deferred content of a lazily loaded node (a Supplier), LOADING while it is filled,
+    // or PENDING_BELOW on ancestors of such nodes.
+    private volatile Object pending;
 
     public ConfigNode(@NotNull String id) {
+        this(id, false);
+    }
+
+    public ConfigNode(@NotNull String id, boolean concurrent) {
         this.id = id;
-        this.subNodes = new HashMap<>();
+        this.concurrent = concurrent;
+        this.subNodes = concurrent ? new ConcurrentHashMap<String, ConfigNode>() : null;
         this.parentNode = null;
     }
 
     public static <C extends ConfigNode> C copy(C source, C destination) {
         source.subNodes().values().forEach(node -> destination.addNode(node.copyTo(destination, node.id())));
-        destination.set(source.get());
+        ((ConfigNode) destination).copyValue(source);
         return destination;
     }
 
+    private void copyValue(ConfigNode source) {
+        Object value = source.raw();
+        if (value instanceof Primitive)
+            this.set((Primitive) value, source.bits);
+        else
+            this.set(value);
+    }
+
     public void set(Object value) {
-        this.value = value;
+        if (!this.concurrent) {
+            this.touch();
+            Primitive primitive = Primitive.of(value);
+            if (primitive != null) {
+                this.set(primitive, primitive.bits(value));
+                return;
+            }
+        }
+        Object oldValue;
+        long oldBits = this.bits;
+        if (this.concurrent)
+            oldValue = VALUE.getAndSet(this, value);
+        else {
+            oldValue = this.value;
+            this.value = value;
+            this.rehash(valueHash(oldValue, oldBits), valueHash(value, 0));
+        }
+        this.conversions = null;
+        this.valueChanged(oldValue, oldBits, value, 0);
     }
 
-    public @Nullable Object get() {
+    public void set(boolean value) {
+        this.set(Primitive.BOOLEAN, value ? 1 : 0);
+    }
+
+    public void set(byte value) {
+        this.set(Primitive.BYTE, value);
+    }
+
+    public void set(short value) {
+        this.set(Primitive.SHORT, value);
+    }
+
+    public void set(char value) {
+        this.set(Primitive.CHAR, value);
+    }
+
+    public void set(int value) {
+        this.set(Primitive.INT, value);
+    }
+
+    public void set(long value) {
+        this.set(Primitive.LONG, value);
+    }
+
+    public void set(float value) {
+        this.set(Primitive.FLOAT, Double.doubleToRawLongBits(value));
+    }
+
+    public void set(double value) {
+        this.set(Primitive.DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    // The value and its bits can not be published together, so concurrent nodes keep primitives boxed.
+    private void set(Primitive primitive, long bits) {
+        if (this.concurrent) {
+            this.set(primitive.box(bits));
+            return;
+        }
+        this.touch();
+        Object oldValue = this.value;
+        long oldBits = this.bits;
+        this.value = primitive;
+        this.bits = bits;
+        this.rehash(valueHash(oldValue, oldBits), valueHash(primitive, bits));
+        this.conversions = null;
+        this.valueChanged(oldValue, oldBits, primitive, bits);
+    }
+
+    private Object raw() {
+        if (this.concurrent)
+            return VALUE.getAcquire(this);
+        this.touch();
         return this.value;
     }
 
+    public @Nullable Object get() {
+        Object value = this.raw();
+        return value instanceof Primitive ? ((Primitive) value).box(this.bits) : value;
+    }
+
     public <V> @Nullable V get(Class<V> expected) {
-        return expected.cast(this.value);
+        return this.get(expected, SerializerRegistry.getDefault());
     }
 
-    public @Nullable String getAsString() {
-        if (this.value == null)
+    public <V> @Nullable V get(@NotNull Class<V> expected, @NotNull SerializerRegistry registry) {
+        Object value = this.get();
+        if (value == null)
             return null;
-        if (value instanceof String)
+        return registry.deserialize(expected, value);
+    }
+
+    public <T> void set(@NotNull Class<T> type, @Nullable T value) {
+        this.set(type, value, SerializerRegistry.getDefault());
+    }
+
+    public <T> void set(@NotNull Class<T> type, @Nullable T value, @NotNull SerializerRegistry registry) {
+        this.set(value == null ? null : registry.serialize(type.cast(value), TypeCapabilities.plain()));
+    }
+
+    public <T> @Nullable T bind(@NotNull Class<T> type) {
+        return this.bind(type, SerializerRegistry.getDefault());
+    }
+
+    public <T> @Nullable T bind(@NotNull Class<T> type, @NotNull SerializerRegistry registry) {
+        return ObjectBinder.bind(this, type, registry);
+    }
+
+    public void unbind(@NotNull Object value) {
+        this.unbind(value, SerializerRegistry.getDefault());
+    }
+
+    public void unbind(@NotNull Object value, @NotNull SerializerRegistry registry) {
+        ObjectBinder.unbind(this, value, registry);
+    }
+
+    public @Nullable String getAsString() {
+        Object value = this.raw();
+        if (value == null || value instanceof String)
             return (String) value;
-        return value.toString();
+        Conversions conversions = this.conversions(value);
+        String string = conversions.string;
+        if (string == null)
+            conversions.string = string = ConfigValues.asString(this.get());
+        return string;
     }
 
     public @NotNull Number getAsNumber() {
-        if (this.value == null)
-            return 0;
-        if (this.value instanceof Number)
-            return (Number) this.value;
-        try {
-            return new BigDecimal(this.getAsString());
-        } catch (NumberFormatException e) {
-            throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to a Number.", e);
-        }
+        Object value = this.raw();
+        if (value == null || value instanceof Number)
+            return ConfigValues.asNumber(value);
+        Conversions conversions = this.conversions(value);
+        Number number = conversions.number;
+        if (number == null)
+            conversions.number = number = ConfigValues.asNumber(this.get());
+        return number;
     }
 
     public double getAsDouble() {
+        Object value = this.raw();
+        if (value instanceof Primitive && ((Primitive) value).numeric)
+            return ((Primitive) value).asDouble(this.bits);
         return this.getAsNumber().doubleValue();
     }
 
     public long getAsLong() {
+        Object value = this.raw();
+        if (value instanceof Primitive && ((Primitive) value).numeric)
+            return ((Primitive) value).asLong(this.bits);
         return this.getAsNumber().longValue();
     }
 
     public float getAsFloat() {
+        Object value = this.raw();
+        if (value instanceof Primitive && ((Primitive) value).numeric)
+            return (float) ((Primitive) value).asDouble(this.bits);
         return this.getAsNumber().floatValue();
     }
 
     public int getAsInt() {
+        Object value = this.raw();
+        if (value instanceof Primitive && ((Primitive) value).numeric)
+            return ((Primitive) value).asInt(this.bits);
         return this.getAsNumber().intValue();
     }
 
     public short getAsShort() {
+        Object value = this.raw();
+        if (value instanceof Primitive && ((Primitive) value).numeric)
+            return (short) ((Primitive) value).asInt(this.bits);
         return this.getAsNumber().shortValue();
     }
 
     public byte getAsByte() {
+        Object value = this.raw();
+        if (value instanceof Primitive && ((Primitive) value).numeric)
+            return (byte) ((Primitive) value).asInt(this.bits);
         return this.getAsNumber().byteValue();
     }
 
     public boolean getAsBoolean() {
-        if (this.value instanceof Boolean)
-            return (boolean) value;
-        return Boolean.parseBoolean(this.getAsString());
+        Object value = this.raw();
+        if (value == Primitive.BOOLEAN)
+            return this.bits != 0;
+        if (value == null || value instanceof Boolean)
+            return ConfigValues.asBoolean(value);
+        Conversions conversions = this.conversions(value);
+        Boolean bool = conversions.bool;
+        if (bool == null)
+            conversions.bool = bool = ConfigValues.asBoolean(this.get());
+        return bool;
     }
 
     public <V> V[] getAsArray(V[] copyTo) {
-        if (this.value.getClass().isArray()) {
-            System.arraycopy(this.value, 0, copyTo, 0, copyTo.length);
-            return copyTo;
-        } else try {
+        Object value = this.get();
+        if (value.getClass().isArray())
+            return ConfigValues.asArray(value, copyTo);
+        try {
             return this.getAsList().toArray(copyTo);
         } catch (ConfigParseException e) {
             throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to Array.", e);
@@ -117,17 +303,22 @@ public <V> V[] getAsArray(V[] copyTo) {
     }
 
     public List<?> getAsList() {
-        if (List.class.isAssignableFrom(this.value.getClass()))
-            return (List<?>) this.value;
-        if (Enumeration.class.isAssignableFrom(this.value.getClass()))
-            return Collections.list((Enumeration<?>) this.value);
-        if (Iterable.class.isAssignableFrom(this.value.getClass())) {
-            List<Object> listValue = new ArrayList<>();
-            for (Object o : (Iterable<?>) this.value)
-                listValue.add(o);
-            return listValue;
-        }
-        throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to java.util.List.");
+        Object value = this.raw();
+        if (value instanceof List<?>)
+            return (List<?>) value;
+        Conversions conversions = this.conversions(value);
+        List<?> list = conversions.list;
+        if (list == null)
+            conversions.list = list = Collections.unmodifiableList(ConfigValues.asList(this.get()));
+        return list;
+    }
+
+    // Primitive markers are shared between nodes, which is fine as every set(...) drops the holder.
+    private Conversions conversions(Object value) {
+        Conversions conversions = this.conversions;
+        if (conversions == null || conversions.source != value)
+            this.conversions = conversions = new Conversions(value);
+        return conversions;
     }
 
     public @NotNull String id() {
@@ -137,31 +328,149 @@ public List<?> getAsList() {
     public @NotNull ConfigNode node(String... path) {
         ConfigNode cursor = this;
         for (String s : path) {
-            Check.stateCondition(s.contains("."), "Key must not contain '.' as it could cause problems.");
-            Check.stateCondition("value".equals(s), "Key must not equal \"value\", as it could cause problems.");
+            ConfigPath.checkKey(s);
             cursor = cursor.getNode(s);
         }
         return cursor;
     }
 
+    public @NotNull ConfigNode node(@NotNull ConfigPath path) {
+        ConfigNode cursor = this;
+        for (int i = 0; i < path.size(); i++)
+            cursor = cursor.getNode(path.key(i));
+        return cursor;
+    }
+
+    public @NotNull Optional<ConfigNode> find(String... path) {
+        ConfigNode cursor = this;
+        for (String s : path) {
+            ConfigPath.checkKey(s);
+            cursor = cursor.child(s);
+            if (cursor == null)
+                return Optional.empty();
+        }
+        return Optional.of(cursor);
+    }
+
+    public @NotNull Optional<ConfigNode> find(@NotNull ConfigPath path) {
+        return Optional.ofNullable(this.lookup(path));
+    }
+
+    public @Nullable Object getOrDefault(@NotNull ConfigPath path, @Nullable Object defaultValue) {
+        ConfigNode node = this.lookup(path);
+        return node != null && node.hasValue() ? node.get() : defaultValue;
+    }
+
+    public @Nullable String getAsStringOrDefault(@NotNull ConfigPath path, @Nullable String defaultValue) {
+        ConfigNode node = this.lookup(path);
+        return node != null && node.hasValue() ? node.getAsString() : defaultValue;
+    }
+
+    public double getAsDoubleOrDefault(@NotNull ConfigPath path, double defaultValue) {
+        ConfigNode node = this.lookup(path);
+        return node != null && node.hasValue() ? node.getAsDouble() : defaultValue;
+    }
+
+    public long getAsLongOrDefault(@NotNull ConfigPath path, long defaultValue) {
+        ConfigNode node = this.lookup(path);
+        return node != null && node.hasValue() ? node.getAsLong() : defaultValue;
+    }
+
+    public int getAsIntOrDefault(@NotNull ConfigPath path, int defaultValue) {
+        ConfigNode node = this.lookup(path);
+        return node != null && node.hasValue() ? node.getAsInt() : defaultValue;
+    }
+
+    public boolean getAsBooleanOrDefault(@NotNull ConfigPath path, boolean defaultValue) {
+        ConfigNode node = this.lookup(path);
+        return node != null && node.hasValue() ? node.getAsBoolean() : defaultValue;
+    }
+
+    @Nullable ConfigNode lookup(@NotNull ConfigPath path) {
+        ConfigNode cursor = this;
+        for (int i = 0; i < path.size() && cursor != null; i++)
+            cursor = cursor.child(path.key(i));
+        return cursor;
+    }
+
     public @NotNull Map<String, ConfigNode> subNodes() {
-        return Collections.unmodifiableMap(this.subNodes);
+        this.touch();
+        return this.concurrent ? Collections.unmodifiableMap(this.concurrentNodes()) : new SubNodes();
     }
 
     public @Nullable ConfigNode parent() {
-        return this.parentNode;
+        return this.concurrent ? (ConfigNode) PARENT.getAcquire(this) : this.parentNode;
     }
 
     public void parent(ConfigNode newParent) {
+        if (newParent != null)
+            checkMode(newParent, this);
+        if (this.concurrent) {
+            Move move;
+            do {
+                move = this.reparent(this.parent(), newParent);
+            } while (move == null);
+            if (move.detachedFrom() != null)
+                move.detachedFrom().structureChanged(this.id, this, null);
+            return;
+        }
         if (this.hasParent())
             this.parent().removeNode(this.id());
         this.parentNode = newParent;
     }
 
-    private @NotNull ConfigNode getNode(String id) {
-        if (!this.subNodes.containsKey(id))
-            this.addNode(new ConfigNode(id));
-        return this.subNodes.get(id);
+    private @Nullable Move reparent(@Nullable ConfigNode oldParent, @Nullable ConfigNode newParent) {
+        return locked(() -> {
+            if (this.parent() != oldParent)
+                return null;
+            boolean detached = oldParent != null && oldParent.concurrentNodes().remove(this.id, this);
+            PARENT.setRelease(this, newParent);
+            return new Move(null, detached ? oldParent : null);
+        }, this, oldParent, newParent);
+    }
+
+    public @NotNull ConfigPath path() {
+        int depth = 0;
+        for (ConfigNode cursor = this.parent(); cursor != null; cursor = cursor.parent())
+            depth++;
+        String[] keys = new String[depth];
+        ConfigNode cursor = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            keys[i] = cursor.id();
+            cursor = cursor.parent();
+        }
+        return ConfigPath.trusted(keys);
+    }
+
+    public boolean isConcurrent() {
+        return this.concurrent;
+    }
+
+    @Nullable ConfigNode child(String id) {
+        this.touch();
+        return this.subNode(id);
+    }
+
+    @NotNull ConfigNode getNode(String id) {
+        this.touch();
+        ConfigNode node = this.subNode(id);
+        if (node != null)
+            return node;
+        if (this.concurrent) {
+            KeyInterner interner = this.interner();
+            return this.concurrentNodes().computeIfAbsent(interner == null ? id : interner.intern(id), key -> {
+                ConfigNode created = this.newNode(key);
+                created.parentNode = this;
+                return created;
+            });
+        }
+        node = this.newNode(id);
+        this.addNode(node);
+        return node;
+    }
+
+    ConfigNode newNode(String id) {
+        return new ConfigNode(id, this.concurrent);
     }
 
     public void addNodes(Iterable<ConfigNode> nodes) {
@@ -169,31 +478,303 @@ public void addNodes(Iterable<ConfigNode> nodes) {
     }
 
     public void addNode(ConfigNode node) {
-        if (this.hasSubNode(node.id()))
-            this.removeNode(node.id());
+        checkMode(this, node);
+        KeyInterner interner = this.interner();
+        if (interner != null)
+            node.internIds(interner);
+        if (this.concurrent) {
+            Move move;
+            do {
+                move = this.attach(node.parent(), node);
+            } while (move == null);
+            if (move.detachedFrom() != null)
+                move.detachedFrom().structureChanged(node.id, node, null);
+            if (move.previous() != node)
+                this.structureChanged(node.id, move.previous(), node);
+            return;
+        }
+        ConfigNode previous = this.child(node.id());
+        if (previous == node && node.parent() == this)
+            return;
+        if (previous != null) {
+            this.removeSubNode(node.id());
+            previous.parent(null);
+        }
         node.parent(this);
-        this.subNodes.put(node.id(), node);
+        this.putSubNode(node);
+        this.rehash(previous == null ? 0 : childHash(previous.id, previous.hash), childHash(node.id, node.hash));
+        if (node.pending != null)
+            this.markPendingBelow();
+        this.structureChanged(node.id(), previous, node);
+    }
+
+    // Ids are shared per Configuration, so a node takes the interned ids of the tree it joins. Detached trees are
+    // built bottom-up by the loaders and interned once, when they are added to a Configuration.
+    private @Nullable KeyInterner interner() {
+        ConfigNode root = this;
+        for (ConfigNode parent = root.parent(); parent != null; parent = parent.parent())
+            root = parent;
+        return root instanceof Configuration ? ((Configuration) root).keyInterner() : null;
+    }
+
+    // A node that already carries an interned id was interned with its sub nodes when it joined, so loaders that attach
+    // every level on its own do not walk the same subtree again. Deferred content is interned when it is added on first
+    // access. Concurrent children can be read by other threads, so their map keys are interned on creation instead.
+    @SuppressWarnings("unchecked")
+    private void internIds(KeyInterner interner) {
+        if (interner.isInterned(this.id))
+            return;
+        this.id = interner.intern(this.id);
+        if (this.concurrent)
+            return;
+        Object subNodes = this.subNodes;
+        if (subNodes instanceof ConfigNode[]) {
+            for (ConfigNode subNode : (ConfigNode[]) subNodes)
+                subNode.internIds(interner);
+        } else if (subNodes != null) {
+            Map<String, ConfigNode> map = new HashMap<>(((Map<String, ConfigNode>) subNodes).size() * 2);
+            for (ConfigNode subNode : ((Map<String, ConfigNode>) subNodes).values()) {
+                subNode.internIds(interner);
+                map.put(subNode.id, subNode);
+            }
+            this.subNodes = map;
+        }
+    }
+
+    // Plain and concurrent nodes store their sub nodes differently, so a tree never mixes both.
+    private static void checkMode(ConfigNode parent, ConfigNode node) {
+        if (parent.concurrent && !node.concurrent)
+            throw new ConfigException("Only concurrent nodes can be added to a concurrent node.");
+        if (!parent.concurrent && node.concurrent)
+            throw new ConfigException("Concurrent nodes can only be added to a concurrent node.");
+    }
+
+    private @Nullable Move attach(@Nullable ConfigNode oldParent, ConfigNode node) {
+        return locked(() -> {
+            if (node.parent() != oldParent)
+                return null;
+            boolean detached = oldParent != null && oldParent != this && oldParent.concurrentNodes().remove(node.id, node);
+            ConfigNode previous = this.concurrentNodes().put(node.id, node);
+            if (previous != null && previous != node)
+                PARENT.setRelease(previous, null);
+            PARENT.setRelease(node, this);
+            return new Move(previous, detached ? oldParent : null);
+        }, this, oldParent, node);
     }
 
     public void removeNode(String id) {
-        if (this.hasSubNode(id))
-            this.subNodes.remove(id).parent(null);
+        ConfigNode removed;
+        if (this.concurrent) {
+            removed = locked(() -> {
+                ConfigNode node = this.concurrentNodes().remove(id);
+                if (node != null)
+                    PARENT.setRelease(node, null);
+                return node;
+            }, this);
+        } else {
+            this.touch();
+            removed = this.removeSubNode(id);
+            if (removed != null) {
+                removed.parent(null);
+                this.rehash(childHash(id, removed.hash), 0);
+            }
+        }
+        if (removed != null)
+            this.structureChanged(id, removed, null);
+    }
+
+    // The value and sub nodes of the supplied node are moved into this one when it is first accessed.
+    public void defer(@NotNull Supplier<? extends ConfigNode> content) {
+        if (this.concurrent)
+            throw new ConfigException("Concurrent nodes can not be loaded lazily.");
+        if (this.pending != null || this.value != null || this.subNodeCount() != 0)
+            throw new ConfigException("Only empty nodes can be loaded lazily.");
+        this.pending = content;
+        ConfigNode parent = this.parentNode;
+        if (parent != null && parent.subNode(this.id) == this)
+            parent.markPendingBelow();
+    }
+
+    public boolean isLoaded() {
+        Object pending = this.pending;
+        return pending == null || pending == PENDING_BELOW;
+    }
+
+    private void touch() {
+        Object pending = this.pending;
+        if (pending != null && pending != PENDING_BELOW)
+            this.materialize();
+    }
+
+    // Loading is serialized on the root, which also keeps the hash updates of the parent chain consistent.
+    @SuppressWarnings("unchecked")
+    private void materialize() {
+        ConfigNode root = this;
+        for (ConfigNode parent = root.parentNode; parent != null; parent = parent.parentNode)
+            root = parent;
+        synchronized (root) {
+            Object pending = this.pending;
+            // LOADING can only be seen here by the thread that is filling this node.
+            if (!(pending instanceof Supplier))
+                return;
+            this.pending = LOADING;
+            try {
+                ConfigNode content = ((Supplier<? extends ConfigNode>) pending).get();
+                for (ConfigNode subNode : new ArrayList<>(content.subNodes().values()))
+                    this.addNode(subNode);
+                this.copyValue(content);
+            } catch (RuntimeException | Error e) {
+                this.pending = pending;
+                throw e;
+            }
+            this.pending = this.pendingBelow() ? PENDING_BELOW : null;
+        }
+    }
+
+    private boolean pendingBelow() {
+        for (ConfigNode subNode : this.subNodeValues()) {
+            if (subNode.pending != null)
+                return true;
+        }
+        return false;
+    }
+
+    private void markPendingBelow() {
+        for (ConfigNode node = this; node != null && node.pending == null; node = node.parentNode)
+            node.pending = PENDING_BELOW;
+    }
+
+    private void materializeAll() {
+        this.touch();
+        if (this.pending == null)
+            return;
+        for (ConfigNode subNode : new ArrayList<>(this.subNodeValues())) {
+            if (subNode.pending != null)
+                subNode.materializeAll();
+        }
+        if (this.pending == PENDING_BELOW)
+            this.pending = null;
+    }
+
+    // Replaces one term of this node's hash and carries the difference up to the root.
+    private void rehash(long oldTerm, long newTerm) {
+        ConfigNode node = this;
+        long delta = newTerm - oldTerm;
+        while (delta != 0) {
+            long oldHash = node.hash;
+            long newHash = oldHash + delta;
+            node.hash = newHash;
+            ConfigNode parent = node.parentNode;
+            if (parent == null || parent.subNode(node.id) != node)
+                return;
+            delta = childHash(node.id, newHash) - childHash(node.id, oldHash);
+            node = parent;
+        }
+    }
+
+    private static long valueHash(@Nullable Object raw, long bits) {
+        if (raw == null)
+            return 0;
+        int hash = raw instanceof Primitive ? ((Primitive) raw).hash(bits) : stableHash(raw);
+        return mix(hash ^ 0x9E3779B97F4A7C15L);
+    }
+
+    // Only immutable values contribute their content. Lists, maps and other objects can be changed after they
+    // were set, which would leave the cached hash stale, so they all share one hash and are left to equalsNode.
+    private static int stableHash(Object value) {
+        if (value instanceof String || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>
+            || value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Float
+            || value instanceof Short || value instanceof Byte || value instanceof BigInteger || value instanceof BigDecimal)
+            return value.hashCode();
+        return 0x2F0B3C49;
+    }
+
+    private static long childHash(String id, long hash) {
+        return mix(id.hashCode() * 0xC2B2AE3D27D4EB4FL + hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    // Concurrent nodes do not maintain the hash incrementally and compute it on demand, in O(n) of their subtree.
+    // Deferred subtrees are not loaded for the hash, it only covers the content that was loaded so far.
+    public long contentHash() {
+        if (!this.concurrent)
+            return this.hash;
+        Object value = this.get();
+        long hash = valueHash(value, 0);
+        for (ConfigNode subNode : this.subNodeValues())
+            hash += childHash(subNode.id, subNode.contentHash());
+        return hash;
+    }
+
+    private void valueChanged(@Nullable Object oldRaw, long oldBits, @Nullable Object newRaw, long newBits) {
+        if (this.pending == LOADING)
+            return;
+        if (oldRaw == newRaw && (!(newRaw instanceof Primitive) || oldBits == newBits))
+            return;
+        ConfigListeners listeners = this.listeners();
+        if (listeners == null)
+            return;
+        Object oldValue = oldRaw instanceof Primitive ? ((Primitive) oldRaw).box(oldBits) : oldRaw;
+        Object newValue = newRaw instanceof Primitive ? ((Primitive) newRaw).box(newBits) : newRaw;
+        if (!Objects.equals(oldValue, newValue))
+            listeners.dispatch(new ConfigChange(this.path(), oldValue, newValue));
+    }
+
+    private void structureChanged(String id, @Nullable ConfigNode oldNode, @Nullable ConfigNode newNode) {
+        if (this.pending == LOADING)
+            return;
+        ConfigListeners listeners = this.listeners();
+        if (listeners != null)
+            listeners.dispatch(this.path().trustedChild(id), oldNode, newNode);
+    }
+
+    private @Nullable ConfigListeners listeners() {
+        ConfigNode root = this;
+        for (ConfigNode parent = root.parent(); parent != null; parent = parent.parent())
+            root = parent;
+        return root instanceof Configuration ? ((Configuration) root).activeListeners() : null;
+    }
+
+    private static <T> T locked(Supplier<T> action, ConfigNode... nodes) {
+        int[] stripes = new int[nodes.length];
+        int count = 0;
+        for (ConfigNode node : nodes) {
+            if (node != null)
+                stripes[count++] = System.identityHashCode(node) & (LOCKS.length - 1);
+        }
+        Arrays.sort(stripes, 0, count);
+        return locked(action, Arrays.copyOf(stripes, count), 0);
+    }
+
+    private static <T> T locked(Supplier<T> action, int[] stripes, int index) {
+        if (index == stripes.length)
+            return action.get();
+        synchronized (LOCKS[stripes[index]]) {
+            return locked(action, stripes, index + 1);
+        }
     }
 
     public boolean hasValue() {
-        return this.value != null;
+        return this.raw() != null;
     }
 
     public boolean hasSubNodes() {
-        return !this.subNodes.isEmpty();
+        this.touch();
+        return this.subNodeCount() != 0;
     }
 
     public boolean hasSubNode(String id) {
-        return this.subNodes.containsKey(id);
+        this.touch();
+        return this.subNode(id) != null;
     }
 
     public boolean hasParent() {
-        return this.parentNode != null;
+        return this.parent() != null;
     }
 
     public boolean isRoot() {
@@ -201,13 +782,13 @@ public boolean isRoot() {
     }
 
     private ConfigNode copyTo(ConfigNode parent, String id) {
-        ConfigNode copy = this.copy(id);
+        ConfigNode copy = ConfigNode.copy(this, parent.newNode(id));
         copy.parent(parent);
         return copy;
     }
 
     public ConfigNode copy(String id) {
-        return ConfigNode.copy(this, new ConfigNode(id));
+        return ConfigNode.copy(this, this.newNode(id));
     }
 
     @Override
@@ -218,15 +799,299 @@ public boolean equals(Object o) {
         return this.equalsNode(that);
     }
 
+    // Has to agree with equals, which compares deferred content too, so that content is loaded first.
+    @Override
+    public int hashCode() {
+        if (this.pending != null)
+            this.materializeAll();
+        long hash = this.contentHash();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // Different hashes rule out equality in O(1) for plain nodes. Equal hashes are not proof, so the trees are then
+    // compared once, without consulting the hashes of the nodes below. Trees with deferred content skip the hash,
+    // the comparison loads deferred nodes one at a time and stops at the first difference.
     public boolean equalsNode(ConfigNode that) {
-        if (!Objects.equals(this.get(), that.get()))
+        if (this == that)
+            return true;
+        if (this.pending == null && that.pending == null && this.contentHash() != that.contentHash())
             return false;
-        for (ConfigNode thisSubNode : this.subNodes().values()) {
-            if (!that.hasSubNode(thisSubNode.id()))
-                return false;
-            if (!thisSubNode.equalsNode(that.getNode(thisSubNode.id())))
+        return this.equalsContent(that);
+    }
+
+    private boolean equalsContent(ConfigNode that) {
+        if (this == that)
+            return true;
+        this.touch();
+        that.touch();
+        if (this.subNodeCount() != that.subNodeCount() || !Objects.equals(this.get(), that.get()))
+            return false;
+        for (ConfigNode thisSubNode : this.subNodeValues()) {
+            ConfigNode thatSubNode = that.child(thisSubNode.id());
+            if (thatSubNode == null || !thisSubNode.equalsContent(thatSubNode))
                 return false;
         }
         return true;
     }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ConfigNode> concurrentNodes() {
+        return (Map<String, ConfigNode>) this.subNodes;
+    }
+
+    // Ids are interned, so the inline scan usually matches on identity.
+    @SuppressWarnings("unchecked")
+    private @Nullable ConfigNode subNode(String id) {
+        Object subNodes = this.subNodes;
+        if (subNodes instanceof ConfigNode[]) {
+            for (ConfigNode node : (ConfigNode[]) subNodes) {
+                if (node.id == id || node.id.equals(id))
+                    return node;
+            }
+            return null;
+        }
+        return subNodes == null ? null : ((Map<String, ConfigNode>) subNodes).get(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int subNodeCount() {
+        Object subNodes = this.subNodes;
+        if (subNodes instanceof ConfigNode[])
+            return ((ConfigNode[]) subNodes).length;
+        return subNodes == null ? 0 : ((Map<String, ConfigNode>) subNodes).size();
+    }
+
+    // Inline arrays are never changed in place, so the returned list stays a stable snapshot.
+    @SuppressWarnings("unchecked")
+    private Collection<ConfigNode> subNodeValues() {
+        Object subNodes = this.subNodes;
+        if (subNodes instanceof ConfigNode[])
+            return Arrays.asList((ConfigNode[]) subNodes);
+        return subNodes == null ? List.of() : ((Map<String, ConfigNode>) subNodes).values();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putSubNode(ConfigNode node) {
+        Object subNodes = this.subNodes;
+        if (subNodes == null) {
+            this.subNodes = new ConfigNode[]{node};
+            return;
+        }
+        if (subNodes instanceof Map<?, ?>) {
+            ((Map<String, ConfigNode>) subNodes).put(node.id, node);
+            return;
+        }
+        ConfigNode[] nodes = (ConfigNode[]) subNodes;
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].id == node.id || nodes[i].id.equals(node.id)) {
+                nodes = nodes.clone();
+                nodes[i] = node;
+                this.subNodes = nodes;
+                return;
+            }
+        }
+        if (nodes.length < INLINE_CHILDREN) {
+            nodes = Arrays.copyOf(nodes, nodes.length + 1);
+            nodes[nodes.length - 1] = node;
+            this.subNodes = nodes;
+            return;
+        }
+        Map<String, ConfigNode> map = new HashMap<>(nodes.length * 4);
+        for (ConfigNode subNode : nodes)
+            map.put(subNode.id, subNode);
+        map.put(node.id, node);
+        this.subNodes = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable ConfigNode removeSubNode(String id) {
+        Object subNodes = this.subNodes;
+        if (subNodes instanceof Map<?, ?>)
+            return ((Map<String, ConfigNode>) subNodes).remove(id);
+        if (subNodes == null)
+            return null;
+        ConfigNode[] nodes = (ConfigNode[]) subNodes;
+        for (int i = 0; i < nodes.length; i++) {
+            ConfigNode node = nodes[i];
+            if (node.id == id || node.id.equals(id)) {
+                if (nodes.length == 1)
+                    this.subNodes = null;
+                else {
+                    ConfigNode[] remaining = new ConfigNode[nodes.length - 1];
+                    System.arraycopy(nodes, 0, remaining, 0, i);
+                    System.arraycopy(nodes, i + 1, remaining, i, remaining.length - i);
+                    this.subNodes = remaining;
+                }
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // Read-only view that follows the node when its children switch between the compact forms.
+    private final class SubNodes extends AbstractMap<String, ConfigNode> {
+
+        @Override
+        public int size() {
+            return subNodeCount();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return subNodeCount() == 0;
+        }
+
+        @Override
+        public ConfigNode get(Object key) {
+            return key instanceof String ? subNode((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public @NotNull Collection<ConfigNode> values() {
+            return Collections.unmodifiableCollection(subNodeValues());
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, ConfigNode>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public @NotNull Iterator<Entry<String, ConfigNode>> iterator() {
+                    Iterator<ConfigNode> nodes = subNodeValues().iterator();
+                    return new Iterator<>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return nodes.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, ConfigNode> next() {
+                            ConfigNode node = nodes.next();
+                            return new SimpleImmutableEntry<>(node.id, node);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return subNodeCount();
+                }
+            };
+        }
+    }
+
+    private record Move(@Nullable ConfigNode previous, @Nullable ConfigNode detachedFrom) {
+
+    }
+
+    // Memoized conversions of one value. A holder is only used while its source is still the node's value,
+    // so a holder written back after a concurrent set(...) is simply ignored. Every cached object is
+    // immutable, which makes reading a racily published holder safe.
+    private static final class Conversions {
+
+        private final Object source;
+        private String string;
+        private Number number;
+        private Boolean bool;
+        private List<?> list;
+
+        private Conversions(Object source) {
+            this.source = source;
+        }
+    }
+
+    private enum Primitive {
+        BOOLEAN(false),
+        BYTE(true),
+        SHORT(true),
+        CHAR(false),
+        INT(true),
+        LONG(true),
+        FLOAT(true),
+        DOUBLE(true);
+
+        // Characters and booleans keep their previous conversion rules and are not read as numbers.
+        private final boolean numeric;
+
+        Primitive(boolean numeric) {
+            this.numeric = numeric;
+        }
+
+        static @Nullable Primitive of(@Nullable Object value) {
+            if (value == null)
+                return null;
+            Class<?> type = value.getClass();
+            if (type == Integer.class)
+                return INT;
+            if (type == Long.class)
+                return LONG;
+            if (type == Double.class)
+                return DOUBLE;
+            if (type == Boolean.class)
+                return BOOLEAN;
+            if (type == Float.class)
+                return FLOAT;
+            if (type == Short.class)
+                return SHORT;
+            if (type == Byte.class)
+                return BYTE;
+            if (type == Character.class)
+                return CHAR;
+            return null;
+        }
+
+        long bits(Object value) {
+            return switch (this) {
+                case BOOLEAN -> (boolean) value ? 1 : 0;
+                case CHAR -> (char) value;
+                case FLOAT, DOUBLE -> Double.doubleToRawLongBits(((Number) value).doubleValue());
+                default -> ((Number) value).longValue();
+            };
+        }
+
+        int hash(long bits) {
+            return switch (this) {
+                case BOOLEAN -> Boolean.hashCode(bits != 0);
+                case BYTE -> Byte.hashCode((byte) bits);
+                case SHORT -> Short.hashCode((short) bits);
+                case CHAR -> Character.hashCode((char) bits);
+                case INT -> Integer.hashCode((int) bits);
+                case LONG -> Long.hashCode(bits);
+                case FLOAT -> Float.hashCode((float) Double.longBitsToDouble(bits));
+                case DOUBLE -> Double.hashCode(Double.longBitsToDouble(bits));
+            };
+        }
+
+        Object box(long bits) {
+            return switch (this) {
+                case BOOLEAN -> bits != 0;
+                case BYTE -> (byte) bits;
+                case SHORT -> (short) bits;
+                case CHAR -> (char) bits;
+                case INT -> (int) bits;
+                case LONG -> bits;
+                case FLOAT -> (float) Double.longBitsToDouble(bits);
+                case DOUBLE -> Double.longBitsToDouble(bits);
+            };
+        }
+
+        long asLong(long bits) {
+            return this == FLOAT || this == DOUBLE ? (long) Double.longBitsToDouble(bits) : bits;
+        }
+
+        // Floating point values saturate at the int range first, like Double.intValue() and Double.shortValue().
+        int asInt(long bits) {
+            return this == FLOAT || this == DOUBLE ? (int) Double.longBitsToDouble(bits) : (int) bits;
+        }
+
+        double asDouble(long bits) {
+            return this == FLOAT || this == DOUBLE ? Double.longBitsToDouble(bits) : bits;
+        }
+    }
 }
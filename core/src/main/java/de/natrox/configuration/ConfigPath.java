@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.common.validate.Check;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public final class ConfigPath {
+
+    private static final ConfigPath ROOT = new ConfigPath(new String[0]);
+
+    private final String[] keys;
+    private int hash;
+
+    private ConfigPath(String[] keys) {
+        this.keys = keys;
+    }
+
+    public static @NotNull ConfigPath root() {
+        return ROOT;
+    }
+
+    public static @NotNull ConfigPath of(String... keys) {
+        if (keys.length == 0)
+            return ROOT;
+        String[] copy = keys.clone();
+        for (String key : copy)
+            checkKey(key);
+        return new ConfigPath(copy);
+    }
+
+    public static @NotNull ConfigPath parse(@NotNull String path) {
+        if (path.isEmpty())
+            return ROOT;
+        String[] keys = path.split("\\.", -1);
+        for (String key : keys) {
+            Check.stateCondition(key.isEmpty(), "Path \"" + path + "\" must not contain empty keys.");
+            checkKey(key);
+        }
+        return new ConfigPath(keys);
+    }
+
+    // Keys taken from an existing tree were already accepted by it.
+    static ConfigPath trusted(String[] keys) {
+        return keys.length == 0 ? ROOT : new ConfigPath(keys);
+    }
+
+    static void checkKey(String key) {
+        Check.stateCondition(key.contains("."), "Key must not contain '.' as it could cause problems.");
+        Check.stateCondition("value".equals(key), "Key must not equal \"value\", as it could cause problems.");
+    }
+
+    public int size() {
+        return this.keys.length;
+    }
+
+    public boolean isRoot() {
+        return this.keys.length == 0;
+    }
+
+    public @NotNull String key(int index) {
+        return this.keys[index];
+    }
+
+    public @NotNull ConfigPath parent() {
+        Check.stateCondition(this.isRoot(), "The root path has no parent.");
+        return this.keys.length == 1 ? ROOT : new ConfigPath(Arrays.copyOf(this.keys, this.keys.length - 1));
+    }
+
+    public @NotNull ConfigPath child(@NotNull String key) {
+        checkKey(key);
+        String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key;
+        return new ConfigPath(keys);
+    }
+
+    ConfigPath trustedChild(String key) {
+        String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key;
+        return new ConfigPath(keys);
+    }
+
+    public boolean startsWith(@NotNull ConfigPath prefix) {
+        if (prefix.keys.length > this.keys.length)
+            return false;
+        for (int i = 0; i < prefix.keys.length; i++) {
+            if (!this.keys[i].equals(prefix.keys[i]))
+                return false;
+        }
+        return true;
+    }
+
+    public @NotNull Handle bind(@NotNull ConfigNode root) {
+        return new Handle(this, root);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConfigPath that = (ConfigPath) o;
+        return Arrays.equals(this.keys, that.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+        if (hash == 0)
+            this.hash = hash = Arrays.hashCode(this.keys);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(".", this.keys);
+    }
+
+    public static final class Handle {
+
+        private final ConfigPath path;
+        private final ConfigNode root;
+        // Nodes along the path, index 0 being the direct child of the root.
+        private volatile ConfigNode[] resolved;
+
+        private Handle(ConfigPath path, ConfigNode root) {
+            this.path = path;
+            this.root = root;
+        }
+
+        public @NotNull ConfigPath path() {
+            return this.path;
+        }
+
+        public @NotNull ConfigNode root() {
+            return this.root;
+        }
+
+        public @NotNull ConfigNode node() {
+            if (this.path.isRoot())
+                return this.root;
+            ConfigNode[] resolved = this.resolved;
+            if (resolved == null || !this.isAttached(resolved)) {
+                resolved = new ConfigNode[this.path.size()];
+                ConfigNode cursor = this.root;
+                for (int i = 0; i < resolved.length; i++)
+                    resolved[i] = cursor = cursor.getNode(this.path.key(i));
+                this.resolved = resolved;
+            }
+            return resolved[resolved.length - 1];
+        }
+
+        public @NotNull Optional<ConfigNode> find() {
+            if (this.path.isRoot())
+                return Optional.of(this.root);
+            ConfigNode[] resolved = this.resolved;
+            if (resolved != null && this.isAttached(resolved))
+                return Optional.of(resolved[resolved.length - 1]);
+            resolved = new ConfigNode[this.path.size()];
+            ConfigNode cursor = this.root;
+            for (int i = 0; i < resolved.length; i++) {
+                cursor = cursor.child(this.path.key(i));
+                if (cursor == null)
+                    return Optional.empty();
+                resolved[i] = cursor;
+            }
+            this.resolved = resolved;
+            return Optional.of(cursor);
+        }
+
+        // A cached chain stays valid as long as no node along it was removed, replaced or moved.
+        private boolean isAttached(ConfigNode[] resolved) {
+            ConfigNode parent = this.root;
+            for (ConfigNode node : resolved) {
+                if (node.parent() != parent)
+                    return false;
+                parent = node;
+            }
+            return true;
+        }
+    }
+}
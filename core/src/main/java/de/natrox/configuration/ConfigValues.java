@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.configuration.exception.ConfigParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.*;
+
+final class ConfigValues {
+
+    private ConfigValues() {
+        throw new UnsupportedOperationException();
+    }
+
+    static @Nullable String asString(@Nullable Object value) {
+        if (value == null)
+            return null;
+        if (value instanceof String)
+            return (String) value;
+        return value.toString();
+    }
+
+    static @NotNull Number asNumber(@Nullable Object value) {
+        if (value == null)
+            return 0;
+        if (value instanceof Number)
+            return (Number) value;
+        try {
+            return new BigDecimal(asString(value));
+        } catch (NumberFormatException e) {
+            throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to a Number.", e);
+        }
+    }
+
+    static @Nullable Character asCharacter(@Nullable Object value) {
+        if (value == null || value instanceof Character)
+            return (Character) value;
+        if (value instanceof Number)
+            return (char) ((Number) value).intValue();
+        String string = asString(value);
+        if (string.length() != 1)
+            throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to a Character.");
+        return string.charAt(0);
+    }
+
+    static boolean asBoolean(@Nullable Object value) {
+        if (value instanceof Boolean)
+            return (boolean) value;
+        return Boolean.parseBoolean(asString(value));
+    }
+
+    static <V> V[] asArray(Object value, V[] copyTo) {
+        if (value.getClass().isArray()) {
+            System.arraycopy(value, 0, copyTo, 0, copyTo.length);
+            return copyTo;
+        } else try {
+            return asList(value).toArray(copyTo);
+        } catch (ConfigParseException e) {
+            throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to Array.", e);
+        }
+    }
+
+    static List<?> asList(Object value) {
+        if (List.class.isAssignableFrom(value.getClass()))
+            return (List<?>) value;
+        if (Enumeration.class.isAssignableFrom(value.getClass()))
+            return Collections.list((Enumeration<?>) value);
+        if (Iterable.class.isAssignableFrom(value.getClass())) {
+            List<Object> listValue = new ArrayList<>();
+            for (Object o : (Iterable<?>) value)
+                listValue.add(o);
+            return listValue;
+        }
+        throw new ConfigParseException("Value (" + value.getClass() + ") can not be converted to java.util.List.");
+    }
+
+    static @Nullable Object freeze(@Nullable Object value) {
+        if (value instanceof List<?>) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value)
+                list.add(freeze(element));
+            return Collections.unmodifiableList(list);
+        }
+        if (value instanceof Map<?, ?>) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                map.put(entry.getKey(), freeze(entry.getValue()));
+            return Collections.unmodifiableMap(map);
+        }
+        if (value instanceof Set<?>) {
+            Set<Object> set = new LinkedHashSet<>();
+            for (Object element : (Set<?>) value)
+                set.add(freeze(element));
+            return Collections.unmodifiableSet(set);
+        }
+        // Arrays can not be made read-only, so they are frozen into an unmodifiable list of their elements.
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++)
+                list.add(freeze(Array.get(value, i)));
+            return Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+}
@@ -17,14 +17,26 @@
 package de.natrox.configuration;
 
 import de.natrox.configuration.exception.ConfigException;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class Configuration extends ConfigNode {
 
+    private final KeyInterner keyInterner = new KeyInterner();
+    private volatile ConfigListeners listeners;
+
     public Configuration() {
         super("");
     }
 
+    private Configuration(boolean concurrent) {
+        super("", concurrent);
+    }
+
+    public static Configuration concurrent() {
+        return new Configuration(true);
+    }
+
     @Override
     public boolean hasParent() {
         return false;
@@ -51,6 +63,43 @@ public Configuration copy(String id) {
     }
 
     public Configuration copy() {
-        return ConfigNode.copy(this, new Configuration());
+        return ConfigNode.copy(this, new Configuration(this.isConcurrent()));
+    }
+
+    public ListenerRegistration addListener(@NotNull ConfigPath path, @NotNull ConfigListener listener) {
+        return this.listeners().register(path, false, listener);
+    }
+
+    public ListenerRegistration addSubtreeListener(@NotNull ConfigPath path, @NotNull ConfigListener listener) {
+        return this.listeners().register(path, true, listener);
+    }
+
+    private ConfigListeners listeners() {
+        ConfigListeners listeners = this.listeners;
+        if (listeners == null) {
+            synchronized (this) {
+                listeners = this.listeners;
+                if (listeners == null)
+                    this.listeners = listeners = new ConfigListeners();
+            }
+        }
+        return listeners;
+    }
+
+    KeyInterner keyInterner() {
+        return this.keyInterner;
+    }
+
+    @Nullable ConfigListeners activeListeners() {
+        ConfigListeners listeners = this.listeners;
+        return listeners == null || listeners.isEmpty() ? null : listeners;
+    }
+
+    public FrozenConfiguration freeze() {
+        return new FrozenConfiguration(this);
+    }
+
+    public PersistentConfiguration toPersistent() {
+        return PersistentConfiguration.of(this);
     }
 }
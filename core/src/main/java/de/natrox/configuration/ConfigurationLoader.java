@@ -19,6 +19,9 @@
 import de.natrox.common.builder.IBuilder;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public interface ConfigurationLoader {
 
@@ -26,6 +29,34 @@ public interface ConfigurationLoader {
 
     void save(Configuration config) throws IOException;
 
+    default CompletableFuture<Configuration> loadAsync() {
+        return this.loadAsync(ConfigExecutors.defaultExecutor());
+    }
+
+    default CompletableFuture<Configuration> loadAsync(Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.load();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    default CompletableFuture<Void> saveAsync(Configuration config) {
+        return this.saveAsync(config, ConfigExecutors.defaultExecutor());
+    }
+
+    default CompletableFuture<Void> saveAsync(Configuration config, Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                this.save(config);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
     interface Builder<C extends ConfigurationLoader> extends IBuilder<C> {
 
     }
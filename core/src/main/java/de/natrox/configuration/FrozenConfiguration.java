@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+public final class FrozenConfiguration {
+
+    private static final Comparator<ConfigNode> BY_ID = Comparator.comparing(ConfigNode::id);
+
+    // Nodes are laid out breadth-first, so the children of node i are the sorted range
+    // [childStart[i], childStart[i + 1]) and can be binary searched by id.
+    private final String[] ids;
+    private final Object[] values;
+    private final int[] childStart;
+    private final Node root;
+
+    // Every node is visited once, so a concurrent source that changes meanwhile still yields a consistent snapshot.
+    FrozenConfiguration(@NotNull ConfigNode source) {
+        List<ConfigNode> order = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        int[] childStart = new int[16];
+        order.add(source);
+        for (int i = 0; i < order.size(); i++) {
+            ConfigNode node = order.get(i);
+            values.add(ConfigValues.freeze(node.get()));
+            if (i == childStart.length)
+                childStart = Arrays.copyOf(childStart, i * 2);
+            int start = order.size();
+            childStart[i] = start;
+            order.addAll(node.subNodes().values());
+            order.subList(start, order.size()).sort(BY_ID);
+        }
+        int size = order.size();
+        this.ids = new String[size];
+        for (int i = 0; i < size; i++)
+            this.ids[i] = order.get(i).id();
+        this.values = values.toArray();
+        this.childStart = Arrays.copyOf(childStart, size + 1);
+        this.childStart[size] = size;
+        this.root = new Node(0);
+    }
+
+    public @NotNull Node root() {
+        return this.root;
+    }
+
+    public int size() {
+        return this.ids.length;
+    }
+
+    public @NotNull Optional<Node> find(String... path) {
+        int index = 0;
+        for (String s : path) {
+            ConfigPath.checkKey(s);
+            index = this.child(index, s);
+            if (index < 0)
+                return Optional.empty();
+        }
+        return Optional.of(new Node(index));
+    }
+
+    public @NotNull Optional<Node> find(@NotNull ConfigPath path) {
+        int index = this.indexOf(path);
+        return index < 0 ? Optional.empty() : Optional.of(new Node(index));
+    }
+
+    public @Nullable Object getOrDefault(@NotNull ConfigPath path, @Nullable Object defaultValue) {
+        int index = this.indexOf(path);
+        return index >= 0 && this.values[index] != null ? this.values[index] : defaultValue;
+    }
+
+    public @Nullable String getAsStringOrDefault(@NotNull ConfigPath path, @Nullable String defaultValue) {
+        int index = this.indexOf(path);
+        return index >= 0 && this.values[index] != null ? ConfigValues.asString(this.values[index]) : defaultValue;
+    }
+
+    public double getAsDoubleOrDefault(@NotNull ConfigPath path, double defaultValue) {
+        int index = this.indexOf(path);
+        return index >= 0 && this.values[index] != null ? ConfigValues.asNumber(this.values[index]).doubleValue() : defaultValue;
+    }
+
+    public long getAsLongOrDefault(@NotNull ConfigPath path, long defaultValue) {
+        int index = this.indexOf(path);
+        return index >= 0 && this.values[index] != null ? ConfigValues.asNumber(this.values[index]).longValue() : defaultValue;
+    }
+
+    public int getAsIntOrDefault(@NotNull ConfigPath path, int defaultValue) {
+        int index = this.indexOf(path);
+        return index >= 0 && this.values[index] != null ? ConfigValues.asNumber(this.values[index]).intValue() : defaultValue;
+    }
+
+    public boolean getAsBooleanOrDefault(@NotNull ConfigPath path, boolean defaultValue) {
+        int index = this.indexOf(path);
+        return index >= 0 && this.values[index] != null ? ConfigValues.asBoolean(this.values[index]) : defaultValue;
+    }
+
+    public @NotNull Configuration thaw() {
+        Configuration config = new Configuration();
+        this.thaw(0, config);
+        return config;
+    }
+
+    private void thaw(int index, ConfigNode target) {
+        target.set(this.values[index]);
+        for (int i = this.childStart[index]; i < this.childStart[index + 1]; i++) {
+            ConfigNode subNode = new ConfigNode(this.ids[i]);
+            this.thaw(i, subNode);
+            target.addNode(subNode);
+        }
+    }
+
+    private int indexOf(ConfigPath path) {
+        int index = 0;
+        for (int i = 0; i < path.size() && index >= 0; i++)
+            index = this.child(index, path.key(i));
+        return index;
+    }
+
+    private int child(int parent, String id) {
+        int low = this.childStart[parent];
+        int high = this.childStart[parent + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = this.ids[mid].compareTo(id);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    public final class Node {
+
+        private final int index;
+
+        private Node(int index) {
+            this.index = index;
+        }
+
+        public @NotNull String id() {
+            return ids[this.index];
+        }
+
+        public @Nullable Object get() {
+            return values[this.index];
+        }
+
+        public @Nullable String getAsString() {
+            return ConfigValues.asString(this.get());
+        }
+
+        public @NotNull Number getAsNumber() {
+            return ConfigValues.asNumber(this.get());
+        }
+
+        public double getAsDouble() {
+            return this.getAsNumber().doubleValue();
+        }
+
+        public long getAsLong() {
+            return this.getAsNumber().longValue();
+        }
+
+        public float getAsFloat() {
+            return this.getAsNumber().floatValue();
+        }
+
+        public int getAsInt() {
+            return this.getAsNumber().intValue();
+        }
+
+        public short getAsShort() {
+            return this.getAsNumber().shortValue();
+        }
+
+        public byte getAsByte() {
+            return this.getAsNumber().byteValue();
+        }
+
+        public boolean getAsBoolean() {
+            return ConfigValues.asBoolean(this.get());
+        }
+
+        public List<?> getAsList() {
+            return ConfigValues.asList(this.get());
+        }
+
+        public @NotNull Optional<Node> find(String... path) {
+            int index = this.index;
+            for (String s : path) {
+                ConfigPath.checkKey(s);
+                index = child(index, s);
+                if (index < 0)
+                    return Optional.empty();
+            }
+            return Optional.of(new Node(index));
+        }
+
+        public @NotNull List<Node> subNodes() {
+            int start = childStart[this.index];
+            Node[] nodes = new Node[childStart[this.index + 1] - start];
+            for (int i = 0; i < nodes.length; i++)
+                nodes[i] = new Node(start + i);
+            return List.of(nodes);
+        }
+
+        public boolean hasValue() {
+            return this.get() != null;
+        }
+
+        public boolean hasSubNodes() {
+            return childStart[this.index + 1] > childStart[this.index];
+        }
+
+        public boolean hasSubNode(String id) {
+            return child(this.index, id) >= 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Node that = (Node) o;
+            return this.index == that.index && this.configuration() == that.configuration();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.configuration()) + this.index;
+        }
+
+        private FrozenConfiguration configuration() {
+            return FrozenConfiguration.this;
+        }
+    }
+}
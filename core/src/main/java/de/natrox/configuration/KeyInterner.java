@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+// A bounded, direct-mapped cache of the node ids of one Configuration. Keys like "enabled" or "port" repeat in
+// thousands of sections, this lets all of them share one String without pinning arbitrary keys forever. A collision
+// only costs the sharing of one key, and slots are published racily since Strings are immutable.
+final class KeyInterner {
+
+    private static final int SIZE = 4096;
+
+    // Allocated on first use, so configurations without children stay small.
+    private String[] table;
+
+    boolean isInterned(String key) {
+        String[] table = this.table;
+        return table != null && table[index(key)] == key;
+    }
+
+    String intern(String key) {
+        String[] table = this.table;
+        if (table == null)
+            this.table = table = new String[SIZE];
+        int index = index(key);
+        String cached = table[index];
+        if (cached == key)
+            return key;
+        if (cached != null && cached.equals(key))
+            return cached;
+        table[index] = key;
+        return key;
+    }
+
+    private static int index(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (SIZE - 1);
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class LayeredConfiguration implements AutoCloseable {
+
+    private static final Object UNRESOLVED = new Object();
+
+    // Lowest priority first, so lookups walk the layers from the end.
+    private final List<Configuration> layers;
+    private final List<ListenerRegistration> registrations;
+    // Resolved values and merged key sets, filled on demand and reset by the layer listeners.
+    private final Entry cache;
+
+    public LayeredConfiguration(@NotNull List<Configuration> layers) {
+        this.layers = List.copyOf(layers);
+        this.cache = new Entry();
+        List<ListenerRegistration> registrations = new ArrayList<>(this.layers.size());
+        for (Configuration layer : this.layers)
+            registrations.add(layer.addSubtreeListener(ConfigPath.root(), change -> this.invalidate(change.path())));
+        this.registrations = List.copyOf(registrations);
+    }
+
+    public static @NotNull LayeredConfiguration of(Configuration... layers) {
+        return new LayeredConfiguration(Arrays.asList(layers));
+    }
+
+    public @NotNull List<Configuration> layers() {
+        return this.layers;
+    }
+
+    public @NotNull Node root() {
+        return new Node(ConfigPath.root());
+    }
+
+    public @NotNull Node node(String... path) {
+        return new Node(ConfigPath.of(path));
+    }
+
+    public @NotNull Node node(@NotNull ConfigPath path) {
+        return new Node(path);
+    }
+
+    public @NotNull Optional<Node> find(String... path) {
+        return this.find(ConfigPath.of(path));
+    }
+
+    public @NotNull Optional<Node> find(@NotNull ConfigPath path) {
+        return this.exists(path) ? Optional.of(new Node(path)) : Optional.empty();
+    }
+
+    public @Nullable Object getOrDefault(@NotNull ConfigPath path, @Nullable Object defaultValue) {
+        Object value = this.value(path);
+        return value != null ? value : defaultValue;
+    }
+
+    public @Nullable String getAsStringOrDefault(@NotNull ConfigPath path, @Nullable String defaultValue) {
+        Object value = this.value(path);
+        return value != null ? ConfigValues.asString(value) : defaultValue;
+    }
+
+    public double getAsDoubleOrDefault(@NotNull ConfigPath path, double defaultValue) {
+        Object value = this.value(path);
+        return value != null ? ConfigValues.asNumber(value).doubleValue() : defaultValue;
+    }
+
+    public long getAsLongOrDefault(@NotNull ConfigPath path, long defaultValue) {
+        Object value = this.value(path);
+        return value != null ? ConfigValues.asNumber(value).longValue() : defaultValue;
+    }
+
+    public int getAsIntOrDefault(@NotNull ConfigPath path, int defaultValue) {
+        Object value = this.value(path);
+        return value != null ? ConfigValues.asNumber(value).intValue() : defaultValue;
+    }
+
+    public boolean getAsBooleanOrDefault(@NotNull ConfigPath path, boolean defaultValue) {
+        Object value = this.value(path);
+        return value != null ? ConfigValues.asBoolean(value) : defaultValue;
+    }
+
+    public @NotNull Configuration toConfiguration() {
+        Configuration configuration = new Configuration();
+        this.copyTo(ConfigPath.root(), configuration);
+        return configuration;
+    }
+
+    private void copyTo(ConfigPath path, ConfigNode target) {
+        target.set(this.value(path));
+        for (String key : this.keys(path))
+            this.copyTo(path.child(key), target.node(key));
+    }
+
+    @Override
+    public void close() {
+        this.registrations.forEach(ListenerRegistration::unregister);
+    }
+
+    private boolean exists(ConfigPath path) {
+        return this.entry(path) != null;
+    }
+
+    private @Nullable Object value(ConfigPath path) {
+        Entry entry = this.entry(path);
+        if (entry == null)
+            return null;
+        Object value = entry.value;
+        if (value != UNRESOLVED)
+            return value;
+        long version = entry.version.get();
+        value = null;
+        for (int i = this.layers.size() - 1; i >= 0 && value == null; i--) {
+            ConfigNode node = this.layers.get(i).lookup(path);
+            if (node != null)
+                value = node.get();
+        }
+        entry.value = value;
+        if (entry.version.get() != version)
+            entry.value = UNRESOLVED;
+        return value;
+    }
+
+    private @NotNull Set<String> keys(ConfigPath path) {
+        Entry entry = this.entry(path);
+        return entry == null ? Set.of() : this.keys(entry, path, path.size());
+    }
+
+    // Merged keys of the first depth keys of path, which entry is the cache entry of.
+    private Set<String> keys(Entry entry, ConfigPath path, int depth) {
+        Set<String> keys = entry.keys;
+        if (keys != null)
+            return keys;
+        long version = entry.version.get();
+        keys = new LinkedHashSet<>();
+        for (Configuration layer : this.layers) {
+            ConfigNode node = layer;
+            for (int i = 0; i < depth && node != null; i++)
+                node = node.child(path.key(i));
+            if (node != null)
+                keys.addAll(node.subNodes().keySet());
+        }
+        keys = Collections.unmodifiableSet(keys);
+        entry.keys = keys;
+        if (entry.version.get() != version)
+            entry.keys = null;
+        return keys;
+    }
+
+    // Entries are only created for paths that exist in some layer, so probing missing paths does not grow the cache.
+    private @Nullable Entry entry(ConfigPath path) {
+        Entry entry = this.cache;
+        for (int i = 0; i < path.size(); i++) {
+            String key = path.key(i);
+            if (!this.keys(entry, path, i).contains(key))
+                return null;
+            entry = entry.children.computeIfAbsent(key, ignored -> new Entry());
+        }
+        return entry;
+    }
+
+    // A change resets the value at its path. Merged key sets are only reset where the path appeared in or vanished from
+    // every layer, and the entry of a vanished path is dropped with everything cached below it. Only the entries that are
+    // reset get a new version, so lookups elsewhere keep their results.
+    private void invalidate(ConfigPath path) {
+        Entry entry = this.cache;
+        if (path.isRoot()) {
+            entry.version.incrementAndGet();
+            entry.value = UNRESOLVED;
+            entry.keys = null;
+            return;
+        }
+        int depth = this.depth(path);
+        for (int i = 0; i < path.size(); i++) {
+            String key = path.key(i);
+            Set<String> keys = entry.keys;
+            if (keys != null && keys.contains(key) != depth > i) {
+                entry.version.incrementAndGet();
+                entry.keys = null;
+            }
+            Entry child = entry.children.get(key);
+            if (child == null)
+                return;
+            if (depth <= i) {
+                child.version.incrementAndGet();
+                entry.children.remove(key, child);
+                return;
+            }
+            entry = child;
+        }
+        entry.version.incrementAndGet();
+        entry.value = UNRESOLVED;
+    }
+
+    // The length of the longest prefix of path that exists in any layer.
+    private int depth(ConfigPath path) {
+        int depth = 0;
+        for (Configuration layer : this.layers) {
+            ConfigNode node = layer;
+            int i = 0;
+            while (i < path.size() && (node = node.child(path.key(i))) != null)
+                i++;
+            depth = Math.max(depth, i);
+        }
+        return depth;
+    }
+
+    boolean cachesKeys(ConfigPath path) {
+        Entry entry = this.cache;
+        for (int i = 0; i < path.size() && entry != null; i++)
+            entry = entry.children.get(path.key(i));
+        return entry != null && entry.keys != null;
+    }
+
+    int cachedEntries() {
+        return this.cache.count();
+    }
+
+    private static final class Entry {
+
+        private final Map<String, Entry> children = new ConcurrentHashMap<>();
+        private volatile Object value = UNRESOLVED;
+        private volatile Set<String> keys;
+        // Bumped before the entry is reset, so a lookup that raced with the reset does not keep its result.
+        private final AtomicLong version = new AtomicLong();
+
+        private int count() {
+            int count = 1;
+            for (Entry child : this.children.values())
+                count += child.count();
+            return count;
+        }
+    }
+
+    public final class Node {
+
+        private final ConfigPath path;
+
+        private Node(ConfigPath path) {
+            this.path = path;
+        }
+
+        public @NotNull String id() {
+            return this.path.isRoot() ? "" : this.path.key(this.path.size() - 1);
+        }
+
+        public @NotNull ConfigPath path() {
+            return this.path;
+        }
+
+        public boolean exists() {
+            return LayeredConfiguration.this.exists(this.path);
+        }
+
+        public @Nullable Object get() {
+            return value(this.path);
+        }
+
+        public @Nullable String getAsString() {
+            return ConfigValues.asString(this.get());
+        }
+
+        public @NotNull Number getAsNumber() {
+            return ConfigValues.asNumber(this.get());
+        }
+
+        public double getAsDouble() {
+            return this.getAsNumber().doubleValue();
+        }
+
+        public long getAsLong() {
+            return this.getAsNumber().longValue();
+        }
+
+        public float getAsFloat() {
+            return this.getAsNumber().floatValue();
+        }
+
+        public int getAsInt() {
+            return this.getAsNumber().intValue();
+        }
+
+        public boolean getAsBoolean() {
+            return ConfigValues.asBoolean(this.get());
+        }
+
+        public List<?> getAsList() {
+            return ConfigValues.asList(this.get());
+        }
+
+        public @NotNull Node node(String... path) {
+            ConfigPath resolved = this.path;
+            for (String key : path)
+                resolved = resolved.child(key);
+            return new Node(resolved);
+        }
+
+        public @NotNull List<Node> subNodes() {
+            Set<String> keys = keys(this.path);
+            List<Node> nodes = new ArrayList<>(keys.size());
+            for (String key : keys)
+                nodes.add(new Node(this.path.child(key)));
+            return nodes;
+        }
+
+        public boolean hasValue() {
+            return this.get() != null;
+        }
+
+        public boolean hasSubNodes() {
+            return !keys(this.path).isEmpty();
+        }
+
+        public boolean hasSubNode(String id) {
+            return keys(this.path).contains(id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Node that = (Node) o;
+            return this.path.equals(that.path) && this.configuration() == that.configuration();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.configuration()) + this.path.hashCode();
+        }
+
+        private LayeredConfiguration configuration() {
+            return LayeredConfiguration.this;
+        }
+    }
+}
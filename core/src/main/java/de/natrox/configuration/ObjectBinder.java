@@ -0,0 +1,515 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import de.natrox.configuration.serialize.TypeCapabilities;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class ObjectBinder {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    // One converter per class, object plans inside are built on first use so self-referencing types resolve.
+    private static final ClassValue<Converter> CONVERTERS = new ClassValue<>() {
+        @Override
+        protected Converter computeValue(Class<?> type) {
+            return createConverter(type);
+        }
+    };
+
+    private ObjectBinder() {
+
+    }
+
+    static <T> T bind(@NotNull ConfigNode node, @NotNull Class<T> type, @NotNull SerializerRegistry registry) {
+        @SuppressWarnings("unchecked")
+        T value = (T) converter(type).fromNode(node, registry);
+        return value;
+    }
+
+    static void unbind(@NotNull ConfigNode node, @NotNull Object value, @NotNull SerializerRegistry registry) {
+        converter(value.getClass()).toNode(node, value, registry);
+    }
+
+    private static Converter converter(Type type) {
+        if (type instanceof Class<?>)
+            return CONVERTERS.get((Class<?>) type);
+        if (type instanceof ParameterizedType parameterized) {
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw))
+                return new CollectionConverter(converter(arguments[0]), collectionFactory(raw));
+            if (Map.class.isAssignableFrom(raw)) {
+                if (arguments[0] != String.class && !(arguments[0] instanceof WildcardType))
+                    throw new ConfigException("Unsupported map key type " + arguments[0].getTypeName());
+                return new MapConverter(converter(arguments[1]));
+            }
+            return converter(raw);
+        }
+        if (type instanceof WildcardType wildcard)
+            return converter(wildcard.getUpperBounds()[0]);
+        if (type instanceof GenericArrayType)
+            throw new ConfigException("Unsupported type " + type.getTypeName());
+        return CONVERTERS.get(Object.class);
+    }
+
+    private static Converter createConverter(Class<?> type) {
+        if (type == int.class || type == Integer.class)
+            return new LeafConverter(ConfigNode::getAsInt, value -> ConfigValues.asNumber(value).intValue());
+        if (type == long.class || type == Long.class)
+            return new LeafConverter(ConfigNode::getAsLong, value -> ConfigValues.asNumber(value).longValue());
+        if (type == double.class || type == Double.class)
+            return new LeafConverter(ConfigNode::getAsDouble, value -> ConfigValues.asNumber(value).doubleValue());
+        if (type == float.class || type == Float.class)
+            return new LeafConverter(ConfigNode::getAsFloat, value -> ConfigValues.asNumber(value).floatValue());
+        if (type == short.class || type == Short.class)
+            return new LeafConverter(ConfigNode::getAsShort, value -> ConfigValues.asNumber(value).shortValue());
+        if (type == byte.class || type == Byte.class)
+            return new LeafConverter(ConfigNode::getAsByte, value -> ConfigValues.asNumber(value).byteValue());
+        if (type == boolean.class || type == Boolean.class)
+            return new LeafConverter(ConfigNode::getAsBoolean, ConfigValues::asBoolean);
+        if (type == String.class || type == CharSequence.class)
+            return new LeafConverter(ConfigNode::getAsString, ConfigValues::asString);
+        if (type == char.class || type == Character.class)
+            return new LeafConverter(node -> ConfigValues.asCharacter(node.get()), ConfigValues::asCharacter);
+        if (type == Number.class)
+            return new LeafConverter(ConfigNode::getAsNumber, ConfigValues::asNumber);
+        if (type.isEnum())
+            return new EnumConverter(type);
+        if (type == Object.class)
+            return new ObjectTreeConverter();
+        if (Collection.class.isAssignableFrom(type))
+            return new CollectionConverter(CONVERTERS.get(Object.class), collectionFactory(type));
+        if (Map.class.isAssignableFrom(type))
+            return new MapConverter(CONVERTERS.get(Object.class));
+        if (type.isRecord() || (!type.isPrimitive() && !type.isArray() && !type.isInterface()
+            && !Modifier.isAbstract(type.getModifiers()) && !type.getName().startsWith("java.")))
+            return new PlanConverter(type);
+        return new RegistryConverter(type);
+    }
+
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class))
+            return ArrayList::new;
+        if (type.isAssignableFrom(LinkedHashSet.class))
+            return LinkedHashSet::new;
+        if (type.isAssignableFrom(TreeSet.class))
+            return TreeSet::new;
+        if (type.isAssignableFrom(ArrayDeque.class))
+            return ArrayDeque::new;
+        throw new ConfigException("Unsupported collection type " + type.getName());
+    }
+
+    private static ConfigException bindFailure(Class<?> type, Throwable cause) {
+        if (cause instanceof ConfigException)
+            return (ConfigException) cause;
+        return new ConfigException("Unable to bind " + type.getName(), cause);
+    }
+
+    private interface Converter {
+
+        @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry);
+
+        @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry);
+
+        void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry);
+
+        @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry);
+    }
+
+    private record LeafConverter(Function<ConfigNode, Object> nodeReader,
+                                 Function<Object, Object> valueReader) implements Converter {
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            return node.hasValue() ? this.nodeReader.apply(node) : null;
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            return value == null ? null : this.valueReader.apply(value);
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            node.set(this.toValue(value, registry));
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            return value == null ? null : registry.serialize(value, TypeCapabilities.plain());
+        }
+    }
+
+    // Serializers are looked up on every call, so the converter works with any registry passed to bind.
+    private record RegistryConverter(Class<?> type) implements Converter {
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            return this.fromValue(node.get(), registry);
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            return value == null ? null : registry.deserialize(this.type, value);
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            node.set(this.toValue(value, registry));
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            return value == null ? null : registry.serialize(value, TypeCapabilities.plain());
+        }
+    }
+
+    private static final class EnumConverter implements Converter {
+
+        private final Class<?> type;
+        private final Map<String, Object> constants = new HashMap<>();
+
+        private EnumConverter(Class<?> type) {
+            this.type = type;
+            for (Object constant : type.getEnumConstants())
+                this.constants.put(((Enum<?>) constant).name(), constant);
+        }
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            return this.fromValue(node.getAsString(), registry);
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            Object constant = this.constants.get(value.toString());
+            if (constant == null)
+                throw new ConfigException("Unknown constant " + value + " of " + this.type.getName());
+            return constant;
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            node.set(this.toValue(value, registry));
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            return value == null ? null : ((Enum<?>) value).name();
+        }
+    }
+
+    private record CollectionConverter(Converter element, Supplier<Collection<Object>> factory) implements Converter {
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            return this.fromValue(node.get(), registry);
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            Collection<Object> collection = this.factory.get();
+            if (value instanceof Collection<?>) {
+                for (Object element : (Collection<?>) value)
+                    collection.add(this.element.fromValue(element, registry));
+            } else if (value.getClass().isArray()) {
+                for (int i = 0, length = Array.getLength(value); i < length; i++)
+                    collection.add(this.element.fromValue(Array.get(value, i), registry));
+            } else
+                collection.add(this.element.fromValue(value, registry));
+            return collection;
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            node.set(this.toValue(value, registry));
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            Collection<?> collection = (Collection<?>) value;
+            List<Object> list = new ArrayList<>(collection.size());
+            for (Object element : collection)
+                list.add(this.element.toValue(element, registry));
+            return list;
+        }
+    }
+
+    private record MapConverter(Converter value) implements Converter {
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            if (!node.hasSubNodes())
+                return this.fromValue(node.get(), registry);
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<String, ConfigNode> entry : node.subNodes().entrySet())
+                map.put(entry.getKey(), this.value.fromNode(entry.getValue(), registry));
+            return map;
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            if (!(value instanceof Map<?, ?>))
+                throw new ConfigException("Expected a map but found " + value.getClass().getName());
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                map.put(String.valueOf(entry.getKey()), this.value.fromValue(entry.getValue(), registry));
+            return map;
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null) {
+                node.set(null);
+                return;
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                this.value.toNode(node.node(String.valueOf(entry.getKey())), entry.getValue(), registry);
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                map.put(String.valueOf(entry.getKey()), this.value.toValue(entry.getValue(), registry));
+            return map;
+        }
+    }
+
+    // Untyped targets keep the value as it is and turn sub nodes into maps.
+    private static final class ObjectTreeConverter implements Converter {
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            if (!node.hasSubNodes())
+                return node.get();
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<String, ConfigNode> entry : node.subNodes().entrySet())
+                map.put(entry.getKey(), this.fromNode(entry.getValue(), registry));
+            return map;
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            return value;
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            node.set(this.toValue(value, registry));
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            return CONVERTERS.get(value.getClass()).toValue(value, registry);
+        }
+    }
+
+    private static final class PlanConverter implements Converter {
+
+        private final Class<?> type;
+        // Plain classes with a serializer in the given registry are handed to it instead of being bound field by field.
+        private final @Nullable RegistryConverter registered;
+        private volatile Plan plan;
+
+        private PlanConverter(Class<?> type) {
+            this.type = type;
+            this.registered = type.isRecord() ? null : new RegistryConverter(type);
+        }
+
+        private @Nullable RegistryConverter registered(SerializerRegistry registry) {
+            return this.registered != null && registry.get(this.type) != null ? this.registered : null;
+        }
+
+        private Plan plan() {
+            Plan plan = this.plan;
+            if (plan == null)
+                this.plan = plan = Plan.create(this.type);
+            return plan;
+        }
+
+        @Override
+        public @Nullable Object fromNode(@NotNull ConfigNode node, @NotNull SerializerRegistry registry) {
+            RegistryConverter registered = this.registered(registry);
+            if (registered != null)
+                return registered.fromNode(node, registry);
+            if (!node.hasSubNodes() && node.hasValue())
+                return this.fromValue(node.get(), registry);
+            Plan plan = this.plan();
+            Object[] values = new Object[plan.properties.length];
+            for (int i = 0; i < values.length; i++) {
+                Property property = plan.properties[i];
+                ConfigNode child = node.child(property.name);
+                values[i] = child == null ? null : property.converter.fromNode(child, registry);
+            }
+            return plan.create(values);
+        }
+
+        @Override
+        public @Nullable Object fromValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            RegistryConverter registered = this.registered(registry);
+            if (registered != null)
+                return registered.fromValue(value, registry);
+            if (!(value instanceof Map<?, ?> map))
+                throw new ConfigException("Expected an object of " + this.type.getName() + " but found " + value.getClass().getName());
+            Plan plan = this.plan();
+            Object[] values = new Object[plan.properties.length];
+            for (int i = 0; i < values.length; i++) {
+                Property property = plan.properties[i];
+                values[i] = property.converter.fromValue(map.get(property.name), registry);
+            }
+            return plan.create(values);
+        }
+
+        @Override
+        public void toNode(@NotNull ConfigNode node, @Nullable Object value, @NotNull SerializerRegistry registry) {
+            RegistryConverter registered = this.registered(registry);
+            if (value == null || registered != null) {
+                node.set(registered == null ? null : registered.toValue(value, registry));
+                return;
+            }
+            Plan plan = this.plan();
+            for (Property property : plan.properties)
+                property.converter.toNode(node.node(property.name), property.get(value), registry);
+        }
+
+        @Override
+        public @Nullable Object toValue(@Nullable Object value, @NotNull SerializerRegistry registry) {
+            if (value == null)
+                return null;
+            RegistryConverter registered = this.registered(registry);
+            if (registered != null)
+                return registered.toValue(value, registry);
+            Plan plan = this.plan();
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Property property : plan.properties)
+                map.put(property.name, property.converter.toValue(property.get(value), registry));
+            return map;
+        }
+    }
+
+    private record Property(String name, Converter converter, MethodHandle getter, @Nullable MethodHandle setter,
+                            @Nullable Object defaultValue) {
+
+        private Object get(Object instance) {
+            try {
+                return (Object) this.getter.invokeExact(instance);
+            } catch (Throwable throwable) {
+                throw bindFailure(instance.getClass(), throwable);
+            }
+        }
+    }
+
+    private record Plan(Class<?> type, MethodHandle constructor, Property[] properties, boolean canonical) {
+
+        private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+        private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+        private static Plan create(Class<?> type) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+                if (type.isRecord())
+                    return createRecord(type, lookup);
+
+                List<Property> properties = new ArrayList<>();
+                for (Class<?> cursor = type; cursor != null && cursor != Object.class; cursor = cursor.getSuperclass()) {
+                    MethodHandles.Lookup declaring = cursor == type ? lookup : MethodHandles.privateLookupIn(cursor, LOOKUP);
+                    for (Field field : cursor.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic())
+                            continue;
+                        MethodHandle getter = declaring.unreflectGetter(field).asType(GETTER);
+                        MethodHandle setter = Modifier.isFinal(modifiers) ? null : declaring.unreflectSetter(field).asType(SETTER);
+                        properties.add(new Property(field.getName(), converter(field.getGenericType()), getter, setter, defaultValue(field.getType())));
+                    }
+                }
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+                return new Plan(type, constructor, properties.toArray(Property[]::new), false);
+            } catch (ReflectiveOperationException exception) {
+                throw new ConfigException("Unable to create a binding for " + type.getName(), exception);
+            }
+        }
+
+        private static Plan createRecord(Class<?> type, MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+            RecordComponent[] components = type.getRecordComponents();
+            Property[] properties = new Property[components.length];
+            Class<?>[] parameters = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                RecordComponent component = components[i];
+                parameters[i] = component.getType();
+                MethodHandle getter = lookup.unreflect(component.getAccessor()).asType(GETTER);
+                properties[i] = new Property(component.getName(), converter(component.getGenericType()), getter, null, defaultValue(component.getType()));
+            }
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameters))
+                .asSpreader(Object[].class, parameters.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+            return new Plan(type, constructor, properties, true);
+        }
+
+        private static @Nullable Object defaultValue(Class<?> type) {
+            return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+        }
+
+        private Object create(Object[] values) {
+            try {
+                if (this.canonical) {
+                    for (int i = 0; i < values.length; i++) {
+                        if (values[i] == null)
+                            values[i] = this.properties[i].defaultValue;
+                    }
+                    return (Object) this.constructor.invokeExact(values);
+                }
+                Object instance = (Object) this.constructor.invokeExact();
+                for (int i = 0; i < values.length; i++) {
+                    Property property = this.properties[i];
+                    // Missing entries keep the field initializer of the object.
+                    if (values[i] != null && property.setter != null)
+                        property.setter.invokeExact(instance, values[i]);
+                }
+                return instance;
+            } catch (Throwable throwable) {
+                throw bindFailure(this.type, throwable);
+            }
+        }
+    }
+}
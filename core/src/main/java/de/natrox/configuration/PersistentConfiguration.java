@@ -0,0 +1,283 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+public final class PersistentConfiguration {
+
+    // Trees are immutable and shared between copies, a change replaces only the nodes on its path.
+    private Tree root;
+
+    public PersistentConfiguration() {
+        this(Tree.EMPTY);
+    }
+
+    private PersistentConfiguration(Tree root) {
+        this.root = root;
+    }
+
+    public static @NotNull PersistentConfiguration of(@NotNull ConfigNode source) {
+        return new PersistentConfiguration(Tree.of(source));
+    }
+
+    public @NotNull PersistentConfiguration copy() {
+        return new PersistentConfiguration(this.root);
+    }
+
+    public @NotNull Node root() {
+        return new Node(ConfigPath.root());
+    }
+
+    public @NotNull Node node(String... path) {
+        return new Node(ConfigPath.of(path));
+    }
+
+    public @NotNull Node node(@NotNull ConfigPath path) {
+        return new Node(path);
+    }
+
+    public @NotNull Optional<Node> find(String... path) {
+        return this.find(ConfigPath.of(path));
+    }
+
+    public @NotNull Optional<Node> find(@NotNull ConfigPath path) {
+        return this.lookup(path) == null ? Optional.empty() : Optional.of(new Node(path));
+    }
+
+    public @Nullable Object getOrDefault(@NotNull ConfigPath path, @Nullable Object defaultValue) {
+        Tree tree = this.lookup(path);
+        return tree != null && tree.value != null ? tree.value : defaultValue;
+    }
+
+    public @Nullable String getAsStringOrDefault(@NotNull ConfigPath path, @Nullable String defaultValue) {
+        Tree tree = this.lookup(path);
+        return tree != null && tree.value != null ? ConfigValues.asString(tree.value) : defaultValue;
+    }
+
+    public double getAsDoubleOrDefault(@NotNull ConfigPath path, double defaultValue) {
+        Tree tree = this.lookup(path);
+        return tree != null && tree.value != null ? ConfigValues.asNumber(tree.value).doubleValue() : defaultValue;
+    }
+
+    public long getAsLongOrDefault(@NotNull ConfigPath path, long defaultValue) {
+        Tree tree = this.lookup(path);
+        return tree != null && tree.value != null ? ConfigValues.asNumber(tree.value).longValue() : defaultValue;
+    }
+
+    public int getAsIntOrDefault(@NotNull ConfigPath path, int defaultValue) {
+        Tree tree = this.lookup(path);
+        return tree != null && tree.value != null ? ConfigValues.asNumber(tree.value).intValue() : defaultValue;
+    }
+
+    public boolean getAsBooleanOrDefault(@NotNull ConfigPath path, boolean defaultValue) {
+        Tree tree = this.lookup(path);
+        return tree != null && tree.value != null ? ConfigValues.asBoolean(tree.value) : defaultValue;
+    }
+
+    public void set(@NotNull ConfigPath path, @Nullable Object value) {
+        this.root = this.root.set(path, 0, ConfigValues.freeze(value));
+    }
+
+    public boolean remove(@NotNull ConfigPath path) {
+        if (path.isRoot()) {
+            boolean removed = this.root != Tree.EMPTY;
+            this.root = Tree.EMPTY;
+            return removed;
+        }
+        Tree root = this.root.remove(path, 0);
+        if (root == this.root)
+            return false;
+        this.root = root;
+        return true;
+    }
+
+    public @NotNull Configuration toConfiguration() {
+        Configuration configuration = new Configuration();
+        this.root.copyTo(configuration);
+        return configuration;
+    }
+
+    // Two copies that were not changed since copy() share the same tree.
+    boolean sharesTree(PersistentConfiguration other) {
+        return this.root == other.root;
+    }
+
+    private @Nullable Tree lookup(ConfigPath path) {
+        Tree tree = this.root;
+        for (int i = 0; i < path.size() && tree != null; i++)
+            tree = tree.children.get(path.key(i));
+        return tree;
+    }
+
+    private record Tree(@Nullable Object value, PersistentMap<Tree> children) {
+
+        private static final Tree EMPTY = new Tree(null, PersistentMap.empty());
+
+        private static Tree of(ConfigNode source) {
+            PersistentMap<Tree> children = PersistentMap.empty();
+            for (ConfigNode subNode : source.subNodes().values())
+                children = children.with(subNode.id(), of(subNode));
+            return new Tree(ConfigValues.freeze(source.get()), children);
+        }
+
+        private Tree set(ConfigPath path, int index, @Nullable Object value) {
+            if (index == path.size())
+                return Objects.equals(this.value, value) ? this : new Tree(value, this.children);
+            String key = path.key(index);
+            Tree child = this.children.get(key);
+            Tree updated = (child == null ? EMPTY : child).set(path, index + 1, value);
+            return updated == child ? this : new Tree(this.value, this.children.with(key, updated));
+        }
+
+        private Tree remove(ConfigPath path, int index) {
+            String key = path.key(index);
+            Tree child = this.children.get(key);
+            if (child == null)
+                return this;
+            if (index == path.size() - 1)
+                return new Tree(this.value, this.children.without(key));
+            Tree updated = child.remove(path, index + 1);
+            return updated == child ? this : new Tree(this.value, this.children.with(key, updated));
+        }
+
+        private void copyTo(ConfigNode target) {
+            target.set(this.value);
+            this.children.forEach((key, child) -> child.copyTo(target.node(key)));
+        }
+    }
+
+    public final class Node {
+
+        private final ConfigPath path;
+
+        private Node(ConfigPath path) {
+            this.path = path;
+        }
+
+        public @NotNull String id() {
+            return this.path.isRoot() ? "" : this.path.key(this.path.size() - 1);
+        }
+
+        public @NotNull ConfigPath path() {
+            return this.path;
+        }
+
+        private @Nullable Tree tree() {
+            return lookup(this.path);
+        }
+
+        public boolean exists() {
+            return this.tree() != null;
+        }
+
+        public @Nullable Object get() {
+            Tree tree = this.tree();
+            return tree == null ? null : tree.value;
+        }
+
+        public void set(@Nullable Object value) {
+            PersistentConfiguration.this.set(this.path, value);
+        }
+
+        public boolean remove() {
+            return PersistentConfiguration.this.remove(this.path);
+        }
+
+        public @Nullable String getAsString() {
+            return ConfigValues.asString(this.get());
+        }
+
+        public @NotNull Number getAsNumber() {
+            return ConfigValues.asNumber(this.get());
+        }
+
+        public double getAsDouble() {
+            return this.getAsNumber().doubleValue();
+        }
+
+        public long getAsLong() {
+            return this.getAsNumber().longValue();
+        }
+
+        public float getAsFloat() {
+            return this.getAsNumber().floatValue();
+        }
+
+        public int getAsInt() {
+            return this.getAsNumber().intValue();
+        }
+
+        public boolean getAsBoolean() {
+            return ConfigValues.asBoolean(this.get());
+        }
+
+        public List<?> getAsList() {
+            return ConfigValues.asList(this.get());
+        }
+
+        public @NotNull Node node(String... path) {
+            ConfigPath resolved = this.path;
+            for (String key : path)
+                resolved = resolved.child(key);
+            return new Node(resolved);
+        }
+
+        public @NotNull List<Node> subNodes() {
+            Tree tree = this.tree();
+            if (tree == null)
+                return List.of();
+            List<Node> nodes = new ArrayList<>(tree.children.size());
+            tree.children.forEach((key, child) -> nodes.add(new Node(this.path.child(key))));
+            return nodes;
+        }
+
+        public boolean hasValue() {
+            return this.get() != null;
+        }
+
+        public boolean hasSubNodes() {
+            Tree tree = this.tree();
+            return tree != null && !tree.children.isEmpty();
+        }
+
+        public boolean hasSubNode(String id) {
+            Tree tree = this.tree();
+            return tree != null && tree.children.get(id) != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Node that = (Node) o;
+            return this.path.equals(that.path) && this.configuration() == that.configuration();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.configuration()) + this.path.hashCode();
+        }
+
+        private PersistentConfiguration configuration() {
+            return PersistentConfiguration.this;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiConsumer;
+
+// Hash array mapped trie, updates copy only the trie nodes on the way to the changed key.
+final class PersistentMap<V> {
+
+    private static final PersistentMap<?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    private final TrieNode root;
+    private final int size;
+
+    private PersistentMap(TrieNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentMap<V> empty() {
+        return (PersistentMap<V>) EMPTY;
+    }
+
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable V get(@NotNull String key) {
+        return (V) this.root.find(0, hash(key), key);
+    }
+
+    @NotNull PersistentMap<V> with(@NotNull String key, @NotNull V value) {
+        boolean[] added = new boolean[1];
+        TrieNode root = this.root.with(0, hash(key), key, value, added);
+        if (root == this.root)
+            return this;
+        return new PersistentMap<>(root, added[0] ? this.size + 1 : this.size);
+    }
+
+    @NotNull PersistentMap<V> without(@NotNull String key) {
+        TrieNode root = this.root.without(0, hash(key), key);
+        if (root == this.root)
+            return this;
+        return root == null ? empty() : new PersistentMap<>(root, this.size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull BiConsumer<String, ? super V> action) {
+        this.root.forEach((BiConsumer<String, Object>) action);
+    }
+
+    private interface TrieNode {
+
+        @Nullable Object find(int shift, int hash, String key);
+
+        TrieNode with(int shift, int hash, String key, Object value, boolean[] added);
+
+        @Nullable TrieNode without(int shift, int hash, String key);
+
+        void forEach(BiConsumer<String, Object> action);
+    }
+
+    // Entries are stored as (key, value) pairs, a null key marks a pair holding a nested trie node.
+    private static final class BitmapNode implements TrieNode {
+
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(this.bitmap & (bit - 1)) << 1;
+        }
+
+        @Override
+        public @Nullable Object find(int shift, int hash, String key) {
+            int bit = bit(hash, shift);
+            if ((this.bitmap & bit) == 0)
+                return null;
+            int index = this.index(bit);
+            Object entryKey = this.array[index];
+            Object entryValue = this.array[index + 1];
+            if (entryKey == null)
+                return ((TrieNode) entryValue).find(shift + 5, hash, key);
+            return key.equals(entryKey) ? entryValue : null;
+        }
+
+        @Override
+        public TrieNode with(int shift, int hash, String key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = this.index(bit);
+            if ((this.bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] array = new Object[this.array.length + 2];
+                System.arraycopy(this.array, 0, array, 0, index);
+                array[index] = key;
+                array[index + 1] = value;
+                System.arraycopy(this.array, index, array, index + 2, this.array.length - index);
+                return new BitmapNode(this.bitmap | bit, array);
+            }
+
+            Object entryKey = this.array[index];
+            Object entryValue = this.array[index + 1];
+            if (entryKey == null) {
+                TrieNode node = ((TrieNode) entryValue).with(shift + 5, hash, key, value, added);
+                return node == entryValue ? this : this.replace(index, null, node);
+            }
+            if (key.equals(entryKey))
+                return entryValue == value ? this : this.replace(index, entryKey, value);
+
+            added[0] = true;
+            return this.replace(index, null, split(shift + 5, (String) entryKey, entryValue, hash, key, value));
+        }
+
+        private static TrieNode split(int shift, String firstKey, Object firstValue, int hash, String key, Object value) {
+            int firstHash = hash(firstKey);
+            if (firstHash == hash)
+                return new CollisionNode(hash, new Object[]{firstKey, firstValue, key, value});
+            boolean[] added = new boolean[1];
+            return EMPTY
+                .with(shift, firstHash, firstKey, firstValue, added)
+                .with(shift, hash, key, value, added);
+        }
+
+        private BitmapNode replace(int index, @Nullable Object key, Object value) {
+            Object[] array = this.array.clone();
+            array[index] = key;
+            array[index + 1] = value;
+            return new BitmapNode(this.bitmap, array);
+        }
+
+        @Override
+        public @Nullable TrieNode without(int shift, int hash, String key) {
+            int bit = bit(hash, shift);
+            if ((this.bitmap & bit) == 0)
+                return this;
+            int index = this.index(bit);
+            Object entryKey = this.array[index];
+            Object entryValue = this.array[index + 1];
+            if (entryKey == null) {
+                TrieNode node = ((TrieNode) entryValue).without(shift + 5, hash, key);
+                if (node == entryValue)
+                    return this;
+                if (node != null)
+                    return this.replace(index, null, node);
+            } else if (!key.equals(entryKey))
+                return this;
+
+            if (this.bitmap == bit)
+                return null;
+            Object[] array = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, array, 0, index);
+            System.arraycopy(this.array, index + 2, array, index, array.length - index);
+            return new BitmapNode(this.bitmap ^ bit, array);
+        }
+
+        @Override
+        public void forEach(BiConsumer<String, Object> action) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                if (this.array[i] == null)
+                    ((TrieNode) this.array[i + 1]).forEach(action);
+                else
+                    action.accept((String) this.array[i], this.array[i + 1]);
+            }
+        }
+    }
+
+    private static final class CollisionNode implements TrieNode {
+
+        private final int hash;
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(String key) {
+            for (int i = 0; i < this.array.length; i += 2) {
+                if (key.equals(this.array[i]))
+                    return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public @Nullable Object find(int shift, int hash, String key) {
+            if (hash != this.hash)
+                return null;
+            int index = this.indexOf(key);
+            return index < 0 ? null : this.array[index + 1];
+        }
+
+        @Override
+        public TrieNode with(int shift, int hash, String key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[]{null, this})
+                    .with(shift, hash, key, value, added);
+            }
+            int index = this.indexOf(key);
+            if (index >= 0) {
+                if (this.array[index + 1] == value)
+                    return this;
+                Object[] array = this.array.clone();
+                array[index + 1] = value;
+                return new CollisionNode(hash, array);
+            }
+            added[0] = true;
+            Object[] array = new Object[this.array.length + 2];
+            System.arraycopy(this.array, 0, array, 0, this.array.length);
+            array[this.array.length] = key;
+            array[this.array.length + 1] = value;
+            return new CollisionNode(hash, array);
+        }
+
+        @Override
+        public @Nullable TrieNode without(int shift, int hash, String key) {
+            int index = hash == this.hash ? this.indexOf(key) : -1;
+            if (index < 0)
+                return this;
+            if (this.array.length == 2)
+                return null;
+            Object[] array = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, array, 0, index);
+            System.arraycopy(this.array, index + 2, array, index, array.length - index);
+            return new CollisionNode(hash, array);
+        }
+
+        @Override
+        public void forEach(BiConsumer<String, Object> action) {
+            for (int i = 0; i < this.array.length; i += 2)
+                action.accept((String) this.array[i], this.array[i + 1]);
+        }
+    }
+}
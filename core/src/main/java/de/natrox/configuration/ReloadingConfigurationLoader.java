@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.common.validate.Check;
+import de.natrox.configuration.exception.ConfigException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnknownNullability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public class ReloadingConfigurationLoader implements ConfigurationLoader, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReloadingConfigurationLoader.class);
+
+    private final ConfigurationLoader delegate;
+    private final Path configPath;
+    private final Duration debounce;
+    private final Consumer<Throwable> errorHandler;
+    private final AtomicReference<Snapshot> current;
+    private final ConfigListeners listeners;
+    private final Object loadLock;
+    private volatile SourceStamp loadedStamp;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ReloadingConfigurationLoader(ConfigurationLoader delegate, Path configPath, Duration debounce, Consumer<Throwable> errorHandler) {
+        this.delegate = delegate;
+        this.configPath = configPath.toAbsolutePath();
+        this.debounce = debounce;
+        this.errorHandler = errorHandler;
+        this.current = new AtomicReference<>();
+        this.listeners = new ConfigListeners();
+        this.loadLock = new Object();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Configuration load() throws IOException {
+        Configuration config = this.reload(true);
+        this.startWatching();
+        return config;
+    }
+
+    @Override
+    public void save(Configuration config) throws IOException {
+        synchronized (this.loadLock) {
+            this.delegate.save(config);
+            this.loadedStamp = SourceStamp.of(this.configPath);
+            this.publish(config);
+        }
+    }
+
+    public @NotNull Configuration current() {
+        return this.snapshot().configuration();
+    }
+
+    public long version() {
+        return this.snapshot().version();
+    }
+
+    public @NotNull Snapshot snapshot() {
+        Snapshot snapshot = this.current.get();
+        if (snapshot == null)
+            throw new ConfigException("Configuration at " + this.configPath + " has not been loaded yet.");
+        return snapshot;
+    }
+
+    public ListenerRegistration addListener(@NotNull ConfigPath path, @NotNull ConfigListener listener) {
+        return this.listeners.register(path, false, listener);
+    }
+
+    public ListenerRegistration addSubtreeListener(@NotNull ConfigPath path, @NotNull ConfigListener listener) {
+        return this.listeners.register(path, true, listener);
+    }
+
+    private Configuration reload(boolean force) throws IOException {
+        synchronized (this.loadLock) {
+            SourceStamp stamp = SourceStamp.of(this.configPath);
+            Snapshot snapshot = this.current.get();
+            if (!force && snapshot != null && stamp.equals(this.loadedStamp))
+                return snapshot.configuration();
+            Configuration config = this.delegate.load();
+            this.loadedStamp = stamp;
+            return this.publish(config).configuration();
+        }
+    }
+
+    private Snapshot publish(Configuration config) {
+        Snapshot previous = this.current.get();
+        Snapshot next = new Snapshot(config, previous == null ? 1 : previous.version() + 1);
+        this.current.set(next);
+        if (previous != null && !this.listeners.isEmpty())
+            this.listeners.dispatch(ConfigPath.root(), previous.configuration(), config);
+        return next;
+    }
+
+    private synchronized void startWatching() throws IOException {
+        if (this.watcher != null)
+            return;
+        this.watchService = this.configPath.getFileSystem().newWatchService();
+        this.configPath.getParent().register(this.watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcher = new Thread(this::watch, "config-reload-" + this.configPath.getFileName());
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    private void watch() {
+        WatchService watchService = this.watchService;
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = this.drain(key);
+                // Editors and atomic moves produce bursts of events, wait until the file settles.
+                while ((key = watchService.poll(this.debounce.toMillis(), TimeUnit.MILLISECONDS)) != null)
+                    changed |= this.drain(key);
+                if (!changed)
+                    continue;
+                try {
+                    this.reload(false);
+                } catch (Exception e) {
+                    this.errorHandler.accept(e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.configPath.getFileName().equals(event.context()))
+                changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.watcher == null)
+            return;
+        this.watchService.close();
+        this.watcher.interrupt();
+        this.watcher = null;
+    }
+
+    public record Snapshot(@NotNull Configuration configuration, long version) {
+
+    }
+
+    public final static class Builder implements ConfigurationLoader.Builder<ReloadingConfigurationLoader> {
+
+        private ConfigurationLoader loader;
+        private Path configPath;
+        private Duration debounce = Duration.ofMillis(200);
+        private Consumer<Throwable> errorHandler = e -> LOGGER.warn("Failed to reload configuration, keeping the previous version.", e);
+
+        public Builder loader(final ConfigurationLoader loader) {
+            this.loader = loader;
+            return this;
+        }
+
+        public Builder path(final Path configPath) {
+            this.configPath = configPath;
+            return this;
+        }
+
+        public Builder debounce(final Duration debounce) {
+            this.debounce = debounce;
+            return this;
+        }
+
+        public Builder errorHandler(final Consumer<Throwable> errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability ReloadingConfigurationLoader build() {
+            Check.stateCondition(this.loader == null, "A loader is required.");
+            Check.stateCondition(this.configPath == null, "A path is required.");
+            return new ReloadingConfigurationLoader(this.loader, this.configPath, this.debounce, this.errorHandler);
+        }
+    }
+}
@@ -37,7 +37,7 @@ public BooleanSerializer() {
     @Override
     public Boolean deserialize(Object value) throws ConfigSerializationException {
         if (Number.class.isAssignableFrom(value.getClass()))
-            return ((Number) value).intValue() % 2 == 0;
+            return ((Number) value).intValue() != 0;
 
         if (value instanceof String) {
             String valueStr = StringSerializer.getDefault().deserialize(value).toLowerCase(Locale.ROOT);
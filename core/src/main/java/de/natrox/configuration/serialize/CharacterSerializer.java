@@ -50,6 +50,11 @@ public Character deserialize(Object value) {
 
     @Override
     public Object serialize(@NotNull Character value, @NotNull Predicate<Class<?>> typeSupported) {
-        return null;
+        if (typeSupported.test(String.class))
+            return String.valueOf(value);
+        if (typeSupported.test(Integer.class))
+            return (int) value;
+
+        throw ConfigSerializationException.serialize(this, value);
     }
 }
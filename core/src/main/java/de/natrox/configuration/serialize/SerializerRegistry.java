@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration.serialize;
+
+import de.natrox.common.builder.IBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.UnknownNullability;
+
+import java.util.*;
+
+public final class SerializerRegistry {
+
+    private static final SerializerRegistry DEFAULT = builder()
+        .register(BooleanSerializer.getDefault())
+        .register(CharacterSerializer.getDefault())
+        .register(StringSerializer.getDefault())
+        .build();
+
+    private final Map<Class<?>, Serializer<?>> serializers;
+    // Supertypes and interfaces are searched once per class, later lookups hit the cache.
+    private final ClassValue<Optional<Serializer<?>>> resolved = new ClassValue<>() {
+        @Override
+        protected Optional<Serializer<?>> computeValue(Class<?> type) {
+            return Optional.ofNullable(resolve(wrap(type)));
+        }
+    };
+
+    private SerializerRegistry(Map<Class<?>, Serializer<?>> serializers) {
+        this.serializers = serializers;
+    }
+
+    public static @NotNull SerializerRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive())
+            return type;
+        if (type == int.class)
+            return Integer.class;
+        if (type == long.class)
+            return Long.class;
+        if (type == double.class)
+            return Double.class;
+        if (type == boolean.class)
+            return Boolean.class;
+        if (type == float.class)
+            return Float.class;
+        if (type == short.class)
+            return Short.class;
+        if (type == byte.class)
+            return Byte.class;
+        if (type == char.class)
+            return Character.class;
+        return Void.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable Serializer<T> get(@NotNull Class<T> type) {
+        return (Serializer<T>) this.resolved.get(type).orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialize(@NotNull Class<T> type, @NotNull Object value) {
+        Class<T> wrapped = (Class<T>) wrap(type);
+        if (wrapped.isInstance(value))
+            return wrapped.cast(value);
+        Serializer<T> serializer = this.get(wrapped);
+        if (serializer == null)
+            return wrapped.cast(value);
+        return serializer.deserialize(value);
+    }
+
+    // Values the format can store natively are kept as they are, only the rest goes through a serializer.
+    @SuppressWarnings("unchecked")
+    public <T> Object serialize(@NotNull T value, @NotNull TypeCapabilities capabilities) {
+        if (capabilities.test(value.getClass()))
+            return value;
+        Serializer<T> serializer = (Serializer<T>) this.get(value.getClass());
+        if (serializer == null)
+            return value;
+        return serializer.serialize(value, capabilities);
+    }
+
+    private @Nullable Serializer<?> resolve(Class<?> type) {
+        for (Class<?> cursor = type; cursor != null; cursor = cursor.getSuperclass()) {
+            Serializer<?> serializer = this.serializers.get(cursor);
+            if (serializer != null)
+                return serializer;
+        }
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> cursor = type; cursor != null; cursor = cursor.getSuperclass())
+            queue.addAll(Arrays.asList(cursor.getInterfaces()));
+        while (!queue.isEmpty()) {
+            Class<?> candidate = queue.poll();
+            if (!visited.add(candidate))
+                continue;
+            Serializer<?> serializer = this.serializers.get(candidate);
+            if (serializer != null)
+                return serializer;
+            queue.addAll(Arrays.asList(candidate.getInterfaces()));
+        }
+        return null;
+    }
+
+    public final static class Builder implements IBuilder<SerializerRegistry> {
+
+        private final Map<Class<?>, Serializer<?>> serializers = new HashMap<>();
+
+        public Builder register(final Serializer<?> serializer) {
+            this.serializers.put(serializer.type(), serializer);
+            return this;
+        }
+
+        public Builder registerAll(final SerializerRegistry registry) {
+            this.serializers.putAll(registry.serializers);
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability SerializerRegistry build() {
+            return new SerializerRegistry(Map.copyOf(this.serializers));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration.serialize;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public final class TypeCapabilities implements Predicate<Class<?>> {
+
+    private static final TypeCapabilities PLAIN = of(String.class, Number.class, Boolean.class, Character.class, List.class, Map.class);
+
+    private final Class<?>[] declared;
+    // Resolved once per class, so serializers can ask for every value without walking the hierarchy again.
+    private final ClassValue<Boolean> supported = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            Class<?> wrapped = SerializerRegistry.wrap(type);
+            for (Class<?> declaredType : declared) {
+                if (declaredType.isAssignableFrom(wrapped))
+                    return true;
+            }
+            return false;
+        }
+    };
+
+    private TypeCapabilities(Class<?>[] declared) {
+        this.declared = declared;
+    }
+
+    public static @NotNull TypeCapabilities plain() {
+        return PLAIN;
+    }
+
+    public static @NotNull TypeCapabilities of(Class<?>... types) {
+        return new TypeCapabilities(types.clone());
+    }
+
+    @Override
+    public boolean test(@NotNull Class<?> type) {
+        return this.supported.get(type);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelReaderTest {
+
+    private static String read(Path path, int bufferSize) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (Reader reader = new ChannelReader(FileChannel.open(path, StandardOpenOption.READ), bufferSize)) {
+            reader.transferTo(writer);
+        }
+        return writer.toString();
+    }
+
+    @Test
+    void decodeTest() throws IOException {
+        Path path = Files.createTempFile("channel-", ".json");
+        try {
+            String text = "{\"key\":\"äöü € 😀\"}".repeat(100);
+            Files.writeString(path, "\uFEFF" + text, StandardCharsets.UTF_8);
+
+            // Small buffers split multi-byte sequences at every possible offset.
+            for (int size = 5; size < 12; size++)
+                assertEquals(text, read(path, size));
+            try (Reader reader = ChannelReader.open(path)) {
+                assertEquals(text.length(), reader.transferTo(new StringWriter()));
+            }
+
+            Files.write(path, new byte[]{'"', (byte) 0xC3, '"'});
+            assertThrows(MalformedInputException.class, () -> read(path, 8));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void truncateTest() throws IOException {
+        Path path = Files.createTempFile("channel-", ".json");
+        try {
+            Files.writeString(path, "0123456789".repeat(10), StandardCharsets.UTF_8);
+            try (Reader reader = new ChannelReader(FileChannel.open(path, StandardOpenOption.READ), 16)) {
+                char[] buffer = new char[16];
+                assertEquals(16, reader.read(buffer));
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(40);
+                }
+                StringWriter rest = new StringWriter();
+                reader.transferTo(rest);
+                assertEquals("678901234567890123456789", rest.toString());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,646 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.exception.ConfigParseException;
+import de.natrox.configuration.serialize.Serializer;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import de.natrox.configuration.serialize.TypeCapabilities;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigNodeTest {
+
+    @Test
+    void pathTest() {
+        ConfigPath path = ConfigPath.parse("db.pool.size");
+
+        assertEquals(ConfigPath.of("db", "pool", "size"), path);
+        assertEquals("db.pool.size", path.toString());
+        assertTrue(path.startsWith(ConfigPath.of("db")));
+        assertThrows(IllegalStateException.class, () -> ConfigPath.parse("db..size"));
+        assertThrows(IllegalStateException.class, () -> ConfigPath.of("db", "value"));
+    }
+
+    @Test
+    void handleTest() {
+        Configuration config = new Configuration();
+        ConfigPath.Handle handle = ConfigPath.parse("db.pool.size").bind(config);
+        config.node("db", "pool", "size").set(10);
+
+        assertSame(config.node("db", "pool", "size"), handle.node());
+        assertSame(handle.node(), handle.node());
+
+        config.node("db").removeNode("pool");
+        config.node("db", "pool", "size").set(20);
+
+        assertEquals(20, handle.node().get());
+    }
+
+    @Test
+    void findTest() {
+        Configuration config = new Configuration();
+        config.node("db", "port").set(5432);
+        Configuration other = config.copy();
+
+        assertTrue(config.find("db", "port").isPresent());
+        assertFalse(config.find("db", "host").isPresent());
+        assertEquals("localhost", config.getAsStringOrDefault(ConfigPath.parse("db.host"), "localhost"));
+        assertEquals(5432, config.getAsIntOrDefault(ConfigPath.parse("db.port"), 0));
+        assertFalse(config.node("db").hasSubNode("host"), "Lookups must not create nodes.");
+
+        other.node("db").removeNode("port");
+        assertFalse(config.equalsNode(other));
+        assertFalse(other.node("db").hasSubNode("port"), "Comparing must not create nodes.");
+    }
+
+    @Test
+    void freezeTest() {
+        Configuration config = new Configuration();
+        config.node("db", "port").set(5432);
+        config.node("db", "host").set("localhost");
+        config.node("flags").set(new ArrayList<>(List.of("a", "b")));
+
+        FrozenConfiguration frozen = config.freeze();
+        config.node("db", "port").set(1);
+
+        assertEquals(5432, frozen.getAsIntOrDefault(ConfigPath.parse("db.port"), 0));
+        assertEquals("localhost", frozen.find("db", "host").orElseThrow().getAsString());
+        assertFalse(frozen.find("db", "user").isPresent());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.find("flags").orElseThrow().getAsList().clear());
+        assertEquals(List.of("host", "port"), frozen.find("db").orElseThrow().subNodes().stream().map(FrozenConfiguration.Node::id).toList());
+
+        config.node("db", "port").set(5432);
+        assertEquals(config, frozen.thaw());
+
+        Set<String> tags = new LinkedHashSet<>(List.of("x", "y"));
+        int[] ports = {80, 443};
+        config.node("tags").set(tags);
+        config.node("ports").set(ports);
+        FrozenConfiguration collections = config.freeze();
+        tags.add("z");
+        ports[0] = 8080;
+        Object frozenTags = collections.find("tags").orElseThrow().get();
+        assertEquals(Set.of("x", "y"), frozenTags);
+        assertThrows(UnsupportedOperationException.class, () -> ((Collection<?>) frozenTags).clear());
+        assertEquals(List.of(80, 443), collections.find("ports").orElseThrow().getAsList());
+        assertThrows(UnsupportedOperationException.class, () -> collections.find("ports").orElseThrow().getAsList().clear());
+
+        PersistentConfiguration persistent = PersistentConfiguration.of(config);
+        tags.add("w");
+        assertEquals(Set.of("x", "y", "z"), persistent.getOrDefault(ConfigPath.parse("tags"), null));
+    }
+
+    @Test
+    void concurrentTest() throws InterruptedException {
+        Configuration config = Configuration.concurrent();
+        ConfigNode moved = new ConfigNode("moved", true);
+        config.node("left").addNode(moved);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    config.node("counters", "c" + (i % 100)).set(i);
+                    config.node((i + offset) % 2 == 0 ? "left" : "right").addNode(moved);
+                }
+            });
+            threads[t].start();
+        }
+        // Snapshots taken while the tree changes must not fail.
+        while (threads[0].isAlive())
+            assertTrue(config.freeze().size() >= 1);
+        for (Thread thread : threads)
+            thread.join();
+
+        assertTrue(config.node("counters", "c0").isConcurrent());
+        assertEquals(100, config.node("counters").subNodes().size());
+        ConfigNode parent = moved.parent();
+        assertNotNull(parent);
+        assertSame(moved, parent.subNodes().get("moved"));
+        assertEquals(1, config.node("left").subNodes().size() + config.node("right").subNodes().size());
+        assertThrows(ConfigException.class, () -> config.addNode(new ConfigNode("plain")));
+        ConfigNode plain = new ConfigNode("plain");
+        assertThrows(ConfigException.class, () -> plain.addNode(new ConfigNode("x", true)));
+        assertThrows(ConfigException.class, () -> moved.parent(plain));
+        assertFalse(plain.hasSubNodes());
+    }
+
+    @Test
+    void diffTest() {
+        Configuration oldConfig = new Configuration();
+        oldConfig.node("db", "port").set(5432);
+        oldConfig.node("db", "host").set("localhost");
+        oldConfig.node("cache", "size").set(10);
+        Configuration newConfig = oldConfig.copy();
+        newConfig.node("db", "port").set(6543);
+        newConfig.removeNode("cache");
+        newConfig.node("feature", "enabled").set(true);
+        newConfig.node("unset");
+
+        ConfigDiff diff = ConfigDiff.between(oldConfig, newConfig);
+
+        assertEquals(List.of(new ConfigChange(ConfigPath.parse("db.port"), 5432, 6543)), diff.changed());
+        assertEquals(List.of(new ConfigChange(ConfigPath.parse("cache.size"), 10, null)), diff.removed());
+        assertEquals(List.of(new ConfigChange(ConfigPath.parse("feature.enabled"), null, true)), diff.added());
+        assertEquals(diff.added().get(0).path(), ConfigDiff.between(newConfig, oldConfig).removed().get(0).path());
+        assertTrue(ConfigDiff.between(oldConfig, oldConfig.copy()).isEmpty());
+    }
+
+    @Test
+    void listenerTest() {
+        Configuration config = new Configuration();
+        config.node("db", "port").set(5432);
+        List<ConfigChange> exact = new ArrayList<>();
+        List<ConfigChange> subtree = new ArrayList<>();
+        List<ConfigChange> unrelated = new ArrayList<>();
+        config.addListener(ConfigPath.parse("db.port"), exact::add);
+        config.addSubtreeListener(ConfigPath.parse("db"), subtree::add);
+        ListenerRegistration registration = config.addListener(ConfigPath.parse("cache.size"), unrelated::add);
+
+        config.node("db", "port").set(6543);
+        config.node("db", "host").set("localhost");
+        config.node("db").removeNode("port");
+        registration.unregister();
+        config.node("cache", "size").set(1);
+
+        ConfigPath port = ConfigPath.parse("db.port");
+        assertEquals(List.of(new ConfigChange(port, 5432, 6543), new ConfigChange(port, 6543, null)), exact);
+        assertEquals(3, subtree.size());
+        assertTrue(unrelated.isEmpty());
+
+        Configuration churn = new Configuration();
+        ListenerRegistration kept = churn.addListener(ConfigPath.parse("a.b"), change -> {});
+        for (int i = 0; i < 100; i++)
+            churn.addSubtreeListener(ConfigPath.parse("a.b.c" + i + ".d"), change -> {}).unregister();
+        assertEquals(3, churn.activeListeners().entries());
+        kept.close();
+        assertNull(churn.activeListeners());
+
+        List<ConfigChange> afterFailure = new ArrayList<>();
+        ListenerRegistration failing = churn.addListener(ConfigPath.parse("x"), change -> {
+            throw new IllegalStateException("listener failure");
+        });
+        churn.addListener(ConfigPath.parse("x"), afterFailure::add);
+        churn.node("x").set(1);
+        assertEquals(1, churn.node("x").get());
+        assertEquals(List.of(new ConfigChange(ConfigPath.parse("x"), null, 1)), afterFailure);
+        failing.unregister();
+        churn.addListener(ConfigPath.parse("x"), change -> {});
+        assertEquals(2, churn.activeListeners().entries());
+    }
+
+    @Test
+    void conversionCacheTest() {
+        ConfigNode node = new ConfigNode("size");
+        node.set("42");
+
+        assertSame(node.getAsNumber(), node.getAsNumber());
+        assertEquals(42, node.getAsInt());
+
+        node.set("43");
+        assertEquals(43, node.getAsInt());
+
+        node.set(Set.of("a"));
+        assertSame(node.getAsList(), node.getAsList());
+        assertEquals(List.of("a"), node.getAsList());
+    }
+
+    @Test
+    void primitiveTest() {
+        ConfigNode node = new ConfigNode("value");
+
+        node.set(42);
+        assertEquals(42, node.get());
+        assertEquals(42L, node.getAsLong());
+        assertEquals("42", node.getAsString());
+
+        node.set(1.5f);
+        assertEquals(1.5f, node.get());
+        assertEquals(1, node.getAsInt());
+
+        node.set(3.0e9);
+        assertEquals(Double.valueOf(3.0e9).intValue(), node.getAsInt());
+        assertEquals(Double.valueOf(3.0e9).shortValue(), node.getAsShort());
+        assertEquals(Double.valueOf(3.0e9).byteValue(), node.getAsByte());
+        assertEquals(3_000_000_000L, node.getAsLong());
+        node.set(-1.0e12f);
+        assertEquals(Integer.MIN_VALUE, node.getAsInt());
+        assertEquals(Float.valueOf(-1.0e12f).shortValue(), node.getAsShort());
+
+        node.set((Object) 7L);
+        assertEquals(7L, node.get());
+        assertEquals(7d, node.getAsDouble());
+
+        node.set('5');
+        assertEquals('5', node.get());
+        assertEquals(5, node.getAsInt());
+
+        node.set(true);
+        assertTrue(node.getAsBoolean());
+        assertEquals(node, node.copy("copy"));
+    }
+
+    @Test
+    void serializerTest() {
+        ConfigNode node = new ConfigNode("value");
+
+        node.set("true");
+        assertEquals(true, node.get(Boolean.class));
+        assertEquals(true, node.get(boolean.class));
+        node.set(1);
+        assertEquals(true, node.get(Boolean.class));
+        node.set(0L);
+        assertEquals(false, node.get(Boolean.class));
+        assertEquals(1, SerializerRegistry.getDefault().serialize(true, TypeCapabilities.of(Integer.class)));
+
+        node.set(Character.class, 'x');
+        assertEquals('x', node.get());
+        assertEquals("x", SerializerRegistry.getDefault().serialize('x', TypeCapabilities.of(String.class)));
+
+        SerializerRegistry registry = SerializerRegistry.builder()
+            .register(new Serializer<>(CharSequence.class) {
+                @Override
+                public CharSequence deserialize(Object value) {
+                    return new StringBuilder(value.toString());
+                }
+
+                @Override
+                public Object serialize(CharSequence value, Predicate<Class<?>> typeSupported) {
+                    return value.toString();
+                }
+            })
+            .build();
+        assertNotNull(registry.get(StringBuilder.class));
+        assertSame(registry.get(StringBuilder.class), registry.get(CharSequence.class));
+        assertNull(registry.get(Integer.class));
+
+        node.set(CharSequence.class, new StringBuilder("abc"), registry);
+        assertEquals("abc", node.get());
+        assertThrows(ClassCastException.class, () -> node.get(Integer.class, registry));
+    }
+
+    @Test
+    void bindTest() {
+        Configuration configuration = new Configuration();
+        configuration.node("name").set("lobby");
+        configuration.node("port").set(25565L);
+        configuration.node("mode").set("SURVIVAL");
+        configuration.node("tags").set(List.of("a", "b"));
+        configuration.node("owner", "name").set("admin");
+        configuration.node("owner", "level").set("3");
+        configuration.node("servers").set(List.of(Map.of("name", "hub", "level", 1)));
+        configuration.node("limits", "players").set(100);
+
+        Server server = configuration.bind(Server.class);
+        assertEquals("lobby", server.name());
+        assertEquals(25565, server.port());
+        assertEquals(Mode.SURVIVAL, server.mode());
+        assertEquals(List.of("a", "b"), server.tags());
+        assertEquals(new Owner("admin", 3), server.owner());
+        assertEquals(List.of(new Owner("hub", 1)), server.servers());
+        assertEquals(Map.of("players", 100), server.limits());
+
+        Configuration unbound = new Configuration();
+        unbound.unbind(server);
+        assertEquals(server, unbound.bind(Server.class));
+        assertEquals("SURVIVAL", unbound.node("mode").get());
+
+        Settings settings = configuration.node("owner").bind(Settings.class);
+        assertEquals("admin", settings.name);
+        assertEquals(3, settings.level);
+        assertTrue(settings.enabled);
+
+        ConfigNode symbol = new ConfigNode("symbol");
+        symbol.node("primary").set("A");
+        symbol.node("secondary").set('b');
+        assertEquals(new Symbol('A', 'b'), symbol.bind(Symbol.class));
+        symbol.node("primary").set("AB");
+        assertThrows(ConfigParseException.class, () -> symbol.bind(Symbol.class));
+
+        // A serializer for an already bound class takes over when its registry is passed in.
+        SerializerRegistry registry = SerializerRegistry.builder()
+            .register(new Serializer<>(Settings.class) {
+                @Override
+                public Settings deserialize(Object value) {
+                    Settings settings = new Settings();
+                    settings.name = value.toString();
+                    return settings;
+                }
+
+                @Override
+                public Object serialize(Settings value, Predicate<Class<?>> typeSupported) {
+                    return value.name;
+                }
+            })
+            .build();
+        ConfigNode owner = new ConfigNode("owner");
+        owner.set("guest");
+        assertEquals("guest", owner.bind(Settings.class, registry).name);
+        owner.unbind(settings, registry);
+        assertEquals("admin", owner.get());
+        assertFalse(owner.hasSubNodes());
+        owner.unbind(settings);
+        assertEquals(3, owner.node("level").get());
+    }
+
+    @Test
+    void persistentTest() {
+        Configuration source = new Configuration();
+        source.node("a", "b").set(1);
+        source.node("c").set(List.of("x"));
+
+        PersistentConfiguration configuration = source.toPersistent();
+        PersistentConfiguration copy = configuration.copy();
+        assertTrue(copy.sharesTree(configuration));
+
+        copy.node("a", "b").set(2);
+        copy.node("d").set("new");
+        assertEquals(1, configuration.node("a", "b").get());
+        assertEquals(2, copy.node("a", "b").get());
+        assertFalse(configuration.find("d").isPresent());
+        assertEquals(List.of("x"), copy.node("c").getAsList());
+
+        assertTrue(copy.node("a").remove());
+        assertFalse(copy.node("a").exists());
+        assertTrue(configuration.node("a").hasSubNode("b"));
+        assertEquals(source, configuration.toConfiguration());
+
+        PersistentConfiguration large = new PersistentConfiguration();
+        for (int i = 0; i < 5000; i++)
+            large.set(ConfigPath.of("key" + i), i);
+        for (int i = 0; i < 5000; i += 2)
+            large.remove(ConfigPath.of("key" + i));
+        assertEquals(2500, large.root().subNodes().size());
+        assertEquals(4999, large.getAsIntOrDefault(ConfigPath.of("key4999"), -1));
+        assertEquals(-1, large.getAsIntOrDefault(ConfigPath.of("key4998"), -1));
+    }
+
+    @Test
+    void contentHashTest() {
+        Configuration config = new Configuration();
+        config.node("a", "b").set(1);
+        config.node("a", "c").set("text");
+        config.node("d").set(List.of(1, 2));
+
+        Configuration copy = config.copy();
+        assertEquals(config.contentHash(), copy.contentHash());
+        assertEquals(config.hashCode(), copy.hashCode());
+        assertEquals(config, copy);
+
+        long before = copy.contentHash();
+        copy.node("a", "b").set(2);
+        assertNotEquals(before, copy.contentHash());
+        assertNotEquals(config, copy);
+        copy.node("a", "b").set((Object) 1);
+        assertEquals(before, copy.contentHash());
+
+        copy.node("e");
+        assertNotEquals(config, copy);
+        assertNotEquals(copy, config);
+        copy.removeNode("e");
+        assertEquals(config, copy);
+
+        Configuration concurrent = Configuration.concurrent();
+        concurrent.node("a", "b").set(1);
+        concurrent.node("a", "c").set("text");
+        concurrent.node("d").set(List.of(1, 2));
+        assertEquals(config.contentHash(), concurrent.contentHash());
+        assertTrue(ConfigDiff.between(config, copy).isEmpty());
+        assertTrue(concurrent.equalsNode(concurrent.copy()));
+        Configuration changedConcurrent = concurrent.copy();
+        changedConcurrent.node("a", "b").set(2);
+        assertEquals(List.of(new ConfigChange(ConfigPath.of("a", "b"), 1, 2)), ConfigDiff.between(concurrent, changedConcurrent).all());
+
+        // Colliding hashes and values that are changed after set(...) must still be told apart.
+        Configuration left = new Configuration();
+        Configuration right = new Configuration();
+        left.node("key").set("Aa");
+        right.node("key").set("BB");
+        assertEquals(1, ConfigDiff.between(left, right).changed().size());
+        right.node("key").set(1);
+        left.node("key").set(1L);
+        assertFalse(ConfigDiff.between(left, right).isEmpty());
+        List<Integer> shared = new ArrayList<>(List.of(1, 2));
+        left.node("key").set(shared);
+        right.node("key").set(new ArrayList<>(shared));
+        assertEquals(left, right);
+        shared.add(3);
+        assertNotEquals(left, right);
+        assertFalse(ConfigDiff.between(left, right).isEmpty());
+
+        List<ConfigChange> changes = new ArrayList<>();
+        left.node("section", "name").set("Aa");
+        left.addSubtreeListener(ConfigPath.root(), changes::add);
+        ConfigNode replacement = new ConfigNode("section");
+        replacement.node("name").set("BB");
+        left.addNode(replacement);
+        assertEquals(List.of(new ConfigChange(ConfigPath.of("section", "name"), "Aa", "BB")), changes);
+    }
+
+    @Test
+    void lazyTest() {
+        AtomicInteger loads = new AtomicInteger();
+        Configuration config = new Configuration();
+        ConfigNode region = new ConfigNode("region");
+        region.defer(() -> {
+            loads.incrementAndGet();
+            Configuration content = new Configuration();
+            content.node("name").set("eu");
+            content.node("nodes", "count").set(3);
+            return content;
+        });
+        config.addNode(region);
+        List<ConfigChange> changes = new ArrayList<>();
+        config.addSubtreeListener(ConfigPath.root(), changes::add);
+
+        assertFalse(region.isLoaded());
+        assertEquals(0, loads.get());
+        assertEquals(3, config.node("region", "nodes", "count").getAsInt());
+        assertTrue(region.isLoaded());
+        assertEquals("eu", region.node("name").get());
+        assertEquals(1, loads.get());
+        assertTrue(changes.isEmpty());
+
+        Configuration eager = new Configuration();
+        eager.node("region", "name").set("eu");
+        eager.node("region", "nodes", "count").set(3);
+        assertEquals(eager.contentHash(), config.contentHash());
+
+        ConfigNode other = new ConfigNode("other");
+        other.defer(() -> {
+            Configuration content = new Configuration();
+            content.set(true);
+            return content;
+        });
+        config.addNode(other);
+        eager.node("other").set(true);
+        assertEquals(eager, config);
+        assertTrue(other.isLoaded());
+
+        // Without listeners nothing walks the deferred content, neither the hash nor a comparison that finds
+        // a difference next to it.
+        Configuration detached = new Configuration();
+        detached.node("name").set("eu");
+        ConfigNode unused = new ConfigNode("unused");
+        unused.defer(() -> {
+            throw new AssertionError("loaded");
+        });
+        detached.addNode(unused);
+        detached.contentHash();
+        assertFalse(unused.isLoaded());
+        Configuration changed = new Configuration();
+        changed.node("name").set("us");
+        changed.node("unused").set(1);
+        assertFalse(detached.equalsNode(changed));
+        assertFalse(unused.isLoaded());
+    }
+
+    @Test
+    void layeredTest() {
+        Configuration defaults = new Configuration();
+        defaults.node("db", "host").set("localhost");
+        defaults.node("db", "port").set(5432);
+        defaults.node("debug").set(false);
+        Configuration host = new Configuration();
+        host.node("db", "host").set("db.internal");
+        Configuration overrides = new Configuration();
+
+        try (LayeredConfiguration layered = LayeredConfiguration.of(defaults, host, overrides)) {
+            assertEquals("db.internal", layered.node("db", "host").get());
+            assertEquals(5432, layered.node("db", "port").getAsInt());
+            assertEquals(Set.of("host", "port"), layered.node("db").subNodes().stream().map(LayeredConfiguration.Node::id).collect(Collectors.toSet()));
+            assertFalse(layered.find("db", "user").isPresent());
+
+            overrides.node("db", "port").set(6432);
+            overrides.node("db", "user").set("admin");
+            assertEquals(6432, layered.node("db", "port").get());
+            assertTrue(layered.node("db").hasSubNode("user"));
+
+            host.removeNode("db");
+            assertEquals("localhost", layered.node("db", "host").get());
+            assertFalse(layered.getAsBooleanOrDefault(ConfigPath.of("debug"), true));
+            assertEquals("fallback", layered.getAsStringOrDefault(ConfigPath.of("missing"), "fallback"));
+
+            assertEquals("admin", layered.node("db", "user").get());
+            int cached = layered.cachedEntries();
+            for (int i = 0; i < 100; i++) {
+                assertNull(layered.node("missing" + i, "port").get());
+                assertFalse(layered.find("db", "missing" + i).isPresent());
+            }
+            assertEquals(cached, layered.cachedEntries());
+            overrides.removeNode("db");
+            assertTrue(layered.cachedEntries() < cached);
+            overrides.node("db", "port").set(6432);
+            overrides.node("db", "user").set("admin");
+
+            Configuration merged = layered.toConfiguration();
+            assertEquals("localhost", merged.node("db", "host").get());
+            assertEquals(6432, merged.node("db", "port").get());
+            assertEquals("admin", merged.node("db", "user").get());
+
+            assertTrue(layered.cachesKeys(ConfigPath.root()) && layered.cachesKeys(ConfigPath.of("db")));
+            overrides.node("db", "port").set(7432);
+            assertTrue(layered.cachesKeys(ConfigPath.root()) && layered.cachesKeys(ConfigPath.of("db")));
+            assertEquals(7432, layered.node("db", "port").get());
+            overrides.node("db", "name").set("app");
+            assertTrue(layered.cachesKeys(ConfigPath.root()));
+            assertFalse(layered.cachesKeys(ConfigPath.of("db")));
+            assertTrue(layered.node("db").hasSubNode("name"));
+        }
+        overrides.node("debug").set(true);
+        assertTrue(defaults.activeListeners() == null && overrides.activeListeners() == null);
+    }
+
+    @Test
+    void compactTest() {
+        Configuration config = new Configuration();
+        Map<String, ConfigNode> view = config.subNodes();
+        assertTrue(view.isEmpty());
+        for (int i = 0; i < 20; i++)
+            config.node("section" + i, new String("enabled")).set(i % 2 == 0);
+        assertEquals(20, view.size());
+        assertSame(config.node("section1", "enabled").id(), config.node("section2", "enabled").id());
+        Configuration other = new Configuration();
+        other.node("section1", new String("enabled")).set(true);
+        assertNotSame(config.node("section1", "enabled").id(), other.node("section1", "enabled").id());
+        ConfigNode detached = new ConfigNode("detached");
+        for (int i = 0; i < 10; i++)
+            detached.addNode(new ConfigNode("key" + i));
+        detached.addNode(new ConfigNode(new String("enabled")));
+        config.addNode(detached);
+        assertSame(config.node("section1", "enabled").id(), config.node("detached", "enabled").id());
+        assertSame(config.node("section1", "enabled").id(), detached.subNodes().keySet().stream().filter("enabled"::equals).findFirst().orElseThrow());
+        config.removeNode("detached");
+
+        ConfigNode section = config.node("section0");
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            section.node("key" + i).set(i);
+        section.subNodes().values().forEach(node -> ids.add(node.id()));
+        assertEquals(List.of("enabled", "key0", "key1", "key2", "key3", "key4"), ids);
+
+        section.removeNode("key2");
+        section.node("key0").set("replaced");
+        assertFalse(section.hasSubNode("key2"));
+        assertEquals("replaced", section.subNodes().get("key0").get());
+
+        Configuration copy = config.copy();
+        for (int i = 0; i < 20; i++)
+            config.removeNode("section" + i);
+        assertTrue(view.isEmpty());
+        assertFalse(config.hasSubNodes());
+        assertEquals(20, copy.subNodes().size());
+        assertEquals(copy, copy.copy());
+    }
+
+    enum Mode {
+        SURVIVAL, CREATIVE
+    }
+
+    record Owner(String name, int level) {
+
+    }
+
+    record Server(String name, int port, Mode mode, List<String> tags, Owner owner, List<Owner> servers,
+                  Map<String, Integer> limits) {
+
+    }
+
+    record Symbol(char primary, Character secondary) {
+
+    }
+
+    static class Settings {
+
+        private String name;
+        private int level;
+        private boolean enabled = true;
+    }
+}
@@ -18,33 +18,63 @@
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import de.natrox.configuration.serialize.TypeCapabilities;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.*;
 
 public class ConfigAdapter extends TypeAdapter<Configuration> {
 
+    public static final TypeCapabilities CAPABILITIES = TypeCapabilities.of(String.class, Boolean.class, Number.class, Character.class, Collection.class, Map.class);
+
     private static final Gson DEFAULT_GSON = new GsonBuilder().serializeNulls().create();
     private final Gson gson;
+    private final SerializerRegistry registry;
+    // Looked up once, so number formatting (special floats, long policy) still follows the Gson settings.
+    private final TypeAdapter<Double> doubleAdapter;
+    private final TypeAdapter<Float> floatAdapter;
+    private final TypeAdapter<Long> longAdapter;
+    // Gson keeps its number strategy private, a non Double result for an integral literal means one is configured.
+    private final TypeAdapter<Object> objectAdapter;
+    private final boolean exactNumbers;
 
     public ConfigAdapter() {
-        this.gson = DEFAULT_GSON;
+        this(DEFAULT_GSON);
     }
 
     public ConfigAdapter(Gson gson) {
+        this(gson, SerializerRegistry.getDefault());
+    }
+
+    public ConfigAdapter(Gson gson, SerializerRegistry registry) {
         this.gson = gson;
+        this.registry = registry;
+        this.doubleAdapter = gson.getAdapter(Double.class);
+        this.floatAdapter = gson.getAdapter(Float.class);
+        this.longAdapter = gson.getAdapter(Long.class);
+        this.objectAdapter = gson.getAdapter(Object.class);
+        this.exactNumbers = gson.fromJson("1", Object.class) instanceof Double;
     }
 
     @Override
     public Configuration read(JsonReader in) throws IOException {
         //return new Configuration(this.convertNode(in, null, ""));
-        return convertNode(in, new Configuration());
+        boolean oldLenient = in.isLenient();
+        in.setLenient(true);
+        try {
+            return convertNode(in, new Configuration());
+        } finally {
+            in.setLenient(oldLenient);
+        }
     }
 
     private <C extends ConfigNode> C convertNode(JsonReader in, @NotNull C value) throws IOException {
@@ -54,7 +84,7 @@ private <C extends ConfigNode> C convertNode(JsonReader in, @NotNull C value) th
             while (in.peek().equals(JsonToken.NAME)) {
                 name = in.nextName();
                 if ("value".equals(name))
-                    value.set(gson.fromJson(in, Object.class));
+                    this.readLeaf(in, value);
                 else {
                     ConfigNode subNode = new ConfigNode(name);
                     subNode.parent(value);
@@ -63,7 +93,7 @@ private <C extends ConfigNode> C convertNode(JsonReader in, @NotNull C value) th
             }
             in.endObject();
         } else
-            value.set(gson.fromJson(in, Object.class));
+            this.readLeaf(in, value);
         return value;
     }
 
@@ -76,33 +106,158 @@ private ConfigNode convertNode(JsonReader in, @Nullable ConfigNode parentNode, @
             while (in.peek().equals(JsonToken.NAME)) {
                 name = in.nextName();
                 if ("value".equals(name))
-                    value.set(gson.fromJson(in, Object.class));
+                    this.readLeaf(in, value);
                 else
                     value.addNode(this.convertNode(in, value, name));
             }
             in.endObject();
         } else
-            value.set(gson.fromJson(in, Object.class));
+            this.readLeaf(in, value);
         return value;
     }
 
+    private @Nullable Object readValue(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case STRING:
+                return in.nextString();
+            case NUMBER:
+                return this.readNumber(in);
+            case BOOLEAN:
+                return in.nextBoolean();
+            case NULL:
+                in.nextNull();
+                return null;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext())
+                    list.add(this.readValue(in));
+                in.endArray();
+                return list;
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                in.beginObject();
+                while (in.hasNext())
+                    map.put(in.nextName(), this.readValue(in));
+                in.endObject();
+                return map;
+            default:
+                throw new IllegalStateException("Unexpected token " + in.peek() + " at " + in.getPath());
+        }
+    }
+
+    // Leaf numbers and booleans go straight into the node's primitive slot.
+    private void readLeaf(JsonReader in, ConfigNode node) throws IOException {
+        switch (in.peek()) {
+            case NUMBER:
+                node.set(this.readNumber(in));
+                break;
+            case BOOLEAN:
+                node.set(in.nextBoolean());
+                break;
+            default:
+                node.set(this.readValue(in));
+        }
+    }
+
+    // Integral literals stay exact instead of being widened to Double, unless the Gson instance has its own number strategy.
+    private Object readNumber(JsonReader in) throws IOException {
+        if (!this.exactNumbers)
+            return this.objectAdapter.read(in);
+        String literal = in.nextString();
+        if (!isIntegral(literal))
+            return Double.parseDouble(literal);
+        try {
+            long value = Long.parseLong(literal);
+            if (value == (int) value)
+                return (int) value;
+            return value;
+        } catch (NumberFormatException e) {
+            return new BigInteger(literal);
+        }
+    }
+
+    private static boolean isIntegral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E')
+                return false;
+        }
+        return true;
+    }
+
     @Override
-    public void write(JsonWriter out, Configuration value) {
-        this.gson.toJson(this.convertNode(value), out);
+    public void write(JsonWriter out, Configuration value) throws IOException {
+        boolean oldLenient = out.isLenient();
+        boolean oldHtmlSafe = out.isHtmlSafe();
+        boolean oldSerializeNulls = out.getSerializeNulls();
+        out.setLenient(true);
+        out.setHtmlSafe(this.gson.htmlSafe());
+        out.setSerializeNulls(this.gson.serializeNulls());
+        try {
+            this.writeNode(out, value);
+        } finally {
+            out.setLenient(oldLenient);
+            out.setHtmlSafe(oldHtmlSafe);
+            out.setSerializeNulls(oldSerializeNulls);
+        }
     }
 
-    private JsonObject convertNode(ConfigNode node) {
-        JsonObject value = new JsonObject();
-        if (node.hasValue())
-            value.add("value", gson.toJsonTree(node.get()));
+    private void writeNode(JsonWriter out, ConfigNode node) throws IOException {
+        out.beginObject();
+        if (node.hasValue()) {
+            out.name("value");
+            this.writeValue(out, node.get());
+        }
         for (ConfigNode subNode : node.subNodes().values()) {
             if ((!subNode.hasSubNodes()) && (!subNode.hasValue()))
                 continue;
+            out.name(subNode.id());
             if (subNode.hasSubNodes())
-                value.add(subNode.id(), this.convertNode(subNode));
+                this.writeNode(out, subNode);
             else //hasValue, but not subCluster
-                value.add(subNode.id(), gson.toJsonTree(subNode.get()));
+                this.writeValue(out, subNode.get());
+        }
+        out.endObject();
+    }
+
+    private void writeValue(JsonWriter out, @Nullable Object value) throws IOException {
+        if (value == null)
+            out.nullValue();
+        else if (value instanceof String)
+            out.value((String) value);
+        else if (value instanceof Boolean)
+            out.value((boolean) value);
+        else if (value instanceof Double)
+            this.doubleAdapter.write(out, (Double) value);
+        else if (value instanceof Float)
+            this.floatAdapter.write(out, (Float) value);
+        else if (value instanceof Long)
+            this.longAdapter.write(out, (Long) value);
+        else if (value instanceof Number)
+            out.value((Number) value);
+        else if (value instanceof Character)
+            out.value(value.toString());
+        else if (value instanceof Collection<?>) {
+            out.beginArray();
+            for (Object element : (Collection<?>) value)
+                this.writeValue(out, element);
+            out.endArray();
+        } else if (value instanceof Map<?, ?>) {
+            out.beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                out.name(String.valueOf(entry.getKey()));
+                this.writeValue(out, entry.getValue());
+            }
+            out.endObject();
+        } else {
+            Object serialized = this.registry.serialize(value, CAPABILITIES);
+            if (serialized == null)
+                throw new ConfigException("Serializer for " + value.getClass() + " returned null.");
+            if (serialized != value && CAPABILITIES.test(serialized.getClass()))
+                this.writeValue(out, serialized);
+            else
+                this.gson.toJson(value, value.getClass(), out);
         }
-        return value;
     }
 }
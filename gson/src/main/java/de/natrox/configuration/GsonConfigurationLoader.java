@@ -20,13 +20,28 @@
 import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import de.natrox.configuration.exception.ConfigParseException;
 import org.jetbrains.annotations.UnknownNullability;
 
 import java.io.BufferedWriter;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class GsonConfigurationLoader implements ConfigurationLoader {
 
@@ -34,15 +49,34 @@ public class GsonConfigurationLoader implements ConfigurationLoader {
 
     private final Path configPath;
     private final Gson gson;
+    private final boolean atomic;
+    private final boolean fsync;
+    private final Duration saveWindow;
+    private final int lazyDepth;
+    private final Object writeLock;
+    private final Object saveLock;
+    // Saves arriving within the window are written once, the latest configuration wins.
+    private Configuration pendingConfig;
+    private CompletableFuture<Void> pendingSave;
 
     public GsonConfigurationLoader(final Path configPath) {
-        this.configPath = configPath;
-        this.gson = new GsonBuilder().registerTypeAdapter(Configuration.class, new ConfigAdapter()).setPrettyPrinting().serializeNulls().create();
+        this(configPath, DEFAULT_ADAPTER);
     }
 
     public GsonConfigurationLoader(final Path configPath, final TypeAdapter<Configuration> adapter) {
+        this(configPath, adapter, false, false, Duration.ZERO, 0);
+    }
+
+    public GsonConfigurationLoader(final Path configPath, final TypeAdapter<Configuration> adapter, final boolean atomic,
+                                   final boolean fsync, final Duration saveWindow, final int lazyDepth) {
         this.configPath = configPath;
         this.gson = new GsonBuilder().registerTypeAdapter(Configuration.class, adapter).setPrettyPrinting().serializeNulls().create();
+        this.atomic = atomic;
+        this.fsync = fsync;
+        this.saveWindow = saveWindow;
+        this.lazyDepth = lazyDepth;
+        this.writeLock = new Object();
+        this.saveLock = new Object();
     }
 
     public static Builder builder() {
@@ -51,22 +85,169 @@ public static Builder builder() {
 
     @Override
     public Configuration load() throws IOException {
-        JsonReader reader = new JsonReader(new FileReader(configPath.toFile()));
-        return gson.fromJson(reader, Configuration.class);
+        if (this.lazyDepth > 0)
+            return this.loadLazy();
+        try (JsonReader reader = new JsonReader(ChannelReader.open(configPath))) {
+            return gson.fromJson(reader, Configuration.class);
+        }
+    }
+
+    // Objects below the lazy depth are parsed on first access. The file is read onto the heap instead of being mapped,
+    // so deferred nodes never read a file that a later save (or any other writer) truncated or replaced.
+    private Configuration loadLazy() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.configPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new ConfigParseException("Configuration file " + this.configPath + " is too large to be loaded lazily.");
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0)
+                    break;
+            }
+            data.flip();
+            return new LazyJsonScanner(data, this.gson, this.lazyDepth).scan();
+        }
     }
 
     @Override
     public void save(Configuration config) throws IOException {
-        BufferedWriter writer = Files.newBufferedWriter(configPath);
-        gson.toJson(config, writer);
-        writer.flush();
-        writer.close();
+        if (this.saveWindow.isZero() || this.saveWindow.isNegative()) {
+            synchronized (this.writeLock) {
+                this.write(config);
+            }
+            return;
+        }
+        try {
+            this.saveAsync(config).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(Configuration config, Executor executor) {
+        if (this.saveWindow.isZero() || this.saveWindow.isNegative())
+            return ConfigurationLoader.super.saveAsync(config, executor);
+        synchronized (this.saveLock) {
+            this.pendingConfig = config;
+            if (this.pendingSave == null) {
+                CompletableFuture<Void> future = this.pendingSave = new CompletableFuture<>();
+                // The delay only hands the flush over, the write itself runs on the caller's executor.
+                CompletableFuture.delayedExecutor(this.saveWindow.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                    try {
+                        executor.execute(this::flushPending);
+                    } catch (RejectedExecutionException e) {
+                        synchronized (this.saveLock) {
+                            if (this.pendingSave == future) {
+                                this.pendingConfig = null;
+                                this.pendingSave = null;
+                            }
+                        }
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+            return this.pendingSave;
+        }
+    }
+
+    private void flushPending() {
+        // The pending save is taken under the write lock, so overlapping flushes never write an older configuration last.
+        synchronized (this.writeLock) {
+            Configuration config;
+            CompletableFuture<Void> future;
+            synchronized (this.saveLock) {
+                config = this.pendingConfig;
+                future = this.pendingSave;
+                this.pendingConfig = null;
+                this.pendingSave = null;
+            }
+            if (future == null)
+                return;
+            try {
+                this.write(config);
+                future.complete(null);
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    private void write(Configuration config) throws IOException {
+        if (!this.atomic) {
+            try (FileChannel channel = FileChannel.open(this.configPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                gson.toJson(config, writer);
+                writer.flush();
+                if (this.fsync)
+                    channel.force(true);
+            }
+            return;
+        }
+
+        Path target = this.configPath.toAbsolutePath();
+        Path directory = target.getParent();
+        Path temp = Files.createTempFile(directory, target.getFileName() + ".", ".tmp");
+        try {
+            copyPermissions(target, temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                gson.toJson(config, writer);
+                writer.flush();
+                if (this.fsync)
+                    channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        if (this.fsync)
+            forceDirectory(directory);
+    }
+
+    // Temporary files are created owner-only, the replaced file keeps the permissions it had before.
+    private static void copyPermissions(Path source, Path target) throws IOException {
+        if (!Files.exists(source))
+            return;
+        try {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException ignored) {
+
+        }
+        try {
+            Files.setOwner(target, Files.getOwner(source));
+        } catch (IOException | UnsupportedOperationException ignored) {
+            // Changing the owner usually needs privileges the process does not have.
+        }
+    }
+
+    // Makes the rename itself durable, not every platform allows opening a directory for this.
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+
+        }
     }
 
     public final static class Builder implements ConfigurationLoader.Builder<GsonConfigurationLoader> {
 
         private Path configPath;
         private TypeAdapter<Configuration> adapter = DEFAULT_ADAPTER;
+        private boolean atomic;
+        private boolean fsync;
+        private Duration saveWindow = Duration.ZERO;
+        private int lazyDepth;
 
         public Builder path(final Path configPath) {
             this.configPath = configPath;
@@ -78,9 +259,29 @@ public Builder adapter(final TypeAdapter<Configuration> adapter) {
             return this;
         }
 
+        public Builder atomic(final boolean atomic) {
+            this.atomic = atomic;
+            return this;
+        }
+
+        public Builder fsync(final boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        public Builder saveWindow(final Duration saveWindow) {
+            this.saveWindow = saveWindow;
+            return this;
+        }
+
+        public Builder lazyDepth(final int lazyDepth) {
+            this.lazyDepth = lazyDepth;
+            return this;
+        }
+
         @Override
         public @UnknownNullability GsonConfigurationLoader build() {
-            return new GsonConfigurationLoader(this.configPath, adapter);
+            return new GsonConfigurationLoader(this.configPath, adapter, this.atomic, this.fsync, this.saveWindow, this.lazyDepth);
         }
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import de.natrox.configuration.exception.ConfigParseException;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Reads only the first levels of a config file and records the byte ranges of deeper objects,
+// which are parsed with the loader's Gson instance once their node is accessed. The scanner itself only knows strict
+// JSON. Files using Gson's lenient syntax (comments, unquoted or single quoted text, '=' and ';' separators) are
+// handed to Gson as a whole instead, so they load the same as without a lazy depth, just not lazily.
+final class LazyJsonScanner {
+
+    private final ByteBuffer data;
+    private final Gson gson;
+    private final int depth;
+    private int position;
+
+    LazyJsonScanner(ByteBuffer data, Gson gson, int depth) {
+        this.data = data;
+        this.gson = gson;
+        this.depth = depth;
+    }
+
+    Configuration scan() {
+        this.skipWhitespace();
+        if (this.data.limit() - this.position >= 3 && (this.data.get(this.position) & 0xFF) == 0xEF
+            && (this.data.get(this.position + 1) & 0xFF) == 0xBB && (this.data.get(this.position + 2) & 0xFF) == 0xBF)
+            this.position += 3;
+        this.skipWhitespace();
+        int begin = this.position;
+        if (begin == this.data.limit() || this.data.get(begin) != '{')
+            return this.parse(begin, this.data.limit());
+        try {
+            Configuration config = new Configuration();
+            this.scanObject(config, 1);
+            return config;
+        } catch (ConfigParseException | JsonParseException | IndexOutOfBoundsException e) {
+            return this.parse(begin, this.data.limit());
+        }
+    }
+
+    private void scanObject(ConfigNode node, int level) {
+        this.expect('{');
+        this.skipWhitespace();
+        if (this.data.get(this.position) == '}') {
+            this.position++;
+            return;
+        }
+        while (true) {
+            String key = this.readKey();
+            this.skipWhitespace();
+            this.expect(':');
+            this.skipWhitespace();
+            int start = this.position;
+            byte first = this.data.get(start);
+            if ("value".equals(key)) {
+                int end = this.skipValue();
+                ConfigNode.copy(this.parseValue(start, end), node);
+            } else {
+                ConfigNode subNode = new ConfigNode(key);
+                if (first == '{' && level < this.depth)
+                    this.scanObject(subNode, level + 1);
+                else {
+                    int end = this.skipValue();
+                    if (first == '{')
+                        subNode.defer(() -> this.parse(start, end));
+                    else
+                        ConfigNode.copy(this.parse(start, end), subNode);
+                }
+                node.addNode(subNode);
+            }
+            this.skipWhitespace();
+            byte next = this.data.get(this.position++);
+            if (next == '}')
+                return;
+            if (next != ',')
+                throw this.unexpected(next, this.position - 1);
+            this.skipWhitespace();
+        }
+    }
+
+    // Read like the eager load, leniently and ignoring anything after the first value.
+    private Configuration parse(int start, int end) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(this.data.slice(start, end - start));
+        JsonReader reader = new JsonReader(new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()));
+        return this.gson.fromJson(reader, Configuration.class);
+    }
+
+    // A "value" entry is parsed in its object context, so objects stay values instead of becoming sub nodes.
+    private Configuration parseValue(int start, int end) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(this.data.slice(start, end - start));
+        return this.gson.fromJson("{\"value\":" + chars + "}", Configuration.class);
+    }
+
+    private String readKey() {
+        int start = this.position;
+        this.skipString();
+        boolean escaped = false;
+        for (int i = start + 1; i < this.position - 1; i++) {
+            if (this.data.get(i) == '\\') {
+                escaped = true;
+                break;
+            }
+        }
+        String raw = StandardCharsets.UTF_8.decode(this.data.slice(start, this.position - start)).toString();
+        if (!escaped)
+            return raw.substring(1, raw.length() - 1);
+        try {
+            return new JsonReader(new StringReader(raw)).nextString();
+        } catch (IOException e) {
+            throw new ConfigParseException("Invalid key " + raw + " in configuration file.", e);
+        }
+    }
+
+    private int skipValue() {
+        byte first = this.data.get(this.position);
+        if (first == '"') {
+            this.skipString();
+            return this.position;
+        }
+        if (first == '{' || first == '[') {
+            int nesting = 0;
+            while (true) {
+                byte b = this.data.get(this.position);
+                if (b == '"') {
+                    this.skipString();
+                    continue;
+                }
+                // Comments and single quoted strings may hide brackets, the range can not be found by counting.
+                if (b == '\'' || b == '/' || b == '#')
+                    throw this.unexpected(b, this.position);
+                this.position++;
+                if (b == '{' || b == '[')
+                    nesting++;
+                else if ((b == '}' || b == ']') && --nesting == 0)
+                    return this.position;
+            }
+        }
+        while (this.position < this.data.limit()) {
+            byte b = this.data.get(this.position);
+            if (b == ',' || b == '}' || b == ']' || isWhitespace(b))
+                break;
+            if (b == '\'' || b == '/' || b == '#' || b == ';' || b == '=')
+                throw this.unexpected(b, this.position);
+            this.position++;
+        }
+        return this.position;
+    }
+
+    private void skipString() {
+        if (this.data.get(this.position) != '"')
+            throw this.unexpected(this.data.get(this.position), this.position);
+        this.position++;
+        while (true) {
+            byte b = this.data.get(this.position++);
+            if (b == '\\')
+                this.position++;
+            else if (b == '"')
+                return;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.data.limit() && isWhitespace(this.data.get(this.position)))
+            this.position++;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private void expect(char expected) {
+        byte b = this.data.get(this.position);
+        if (b != expected)
+            throw this.unexpected(b, this.position);
+        this.position++;
+    }
+
+    private ConfigParseException unexpected(byte b, int at) {
+        return new ConfigParseException("Unexpected character '" + (char) b + "' at byte " + at + " of configuration file.");
+    }
+}
@@ -16,7 +16,13 @@
 
 package de.natrox.configuration;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.exception.ConfigParseException;
+import de.natrox.configuration.serialize.Serializer;
+import de.natrox.configuration.serialize.SerializerRegistry;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,8 +32,22 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -174,4 +194,310 @@ void loaderTest() throws IOException {
         checkNumberedConfig(loaded);
         assertTrue(configuration.equalsNode(loaded));
     }
+
+    @Test
+    void writeFormatTest() {
+        Configuration configuration = new Configuration();
+        configuration.node("a").set(2.5d);
+        configuration.node("a", "b").set(List.of(1, "two", true));
+        configuration.node("empty");
+
+        String json = new ConfigAdapter().toJson(configuration);
+
+        assertEquals("{\"a\":{\"value\":2.5,\"b\":[1,\"two\",true]}}", json);
+    }
+
+    @Test
+    void numberReadTest() throws IOException {
+        Configuration configuration = new ConfigAdapter().fromJson("{\"int\":42,\"long\":9007199254740993,\"double\":1.5,\"list\":[1,2.0]}");
+
+        assertEquals(42, configuration.node("int").get());
+        assertEquals(9007199254740993L, configuration.node("long").get());
+        assertEquals(1.5d, configuration.node("double").get());
+        assertEquals(List.of(1, 2.0d), configuration.node("list").get());
+
+        Configuration lenient = new ConfigAdapter().fromJson("{'list':[1,'two',three],unquoted:yes}");
+        assertEquals(List.of(1, "two", "three"), lenient.node("list").get());
+        assertEquals("yes", lenient.node("unquoted").get());
+
+        Gson longOrDouble = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE).create();
+        Configuration strategy = new ConfigAdapter(longOrDouble).fromJson("{\"int\":42,\"list\":[1,2.5]}");
+        assertEquals(42L, strategy.node("int").get());
+        assertEquals(List.of(1L, 2.5d), strategy.node("list").get());
+    }
+
+    @Test
+    void nullSerializerTest() {
+        SerializerRegistry registry = SerializerRegistry.builder()
+            .register(new Serializer<>(StringBuilder.class) {
+                @Override
+                public StringBuilder deserialize(Object value) {
+                    return new StringBuilder(value.toString());
+                }
+
+                @Override
+                public Object serialize(StringBuilder value, Predicate<Class<?>> typeSupported) {
+                    return null;
+                }
+            })
+            .build();
+        Configuration configuration = new Configuration();
+        configuration.node("builder").set(new StringBuilder("abc"));
+        assertThrows(ConfigException.class, () -> new ConfigAdapter(new Gson(), registry).toJson(configuration));
+    }
+
+    @Test
+    void reloadTest() throws IOException, InterruptedException {
+        Path path = Files.createTempFile("reload-", ".json");
+        GsonConfigurationLoader fileLoader = GsonConfigurationLoader.builder().path(path).build();
+        fileLoader.save(generateNumberedConfig());
+
+        try (ReloadingConfigurationLoader reloading = ReloadingConfigurationLoader.builder()
+            .loader(fileLoader)
+            .path(path)
+            .debounce(Duration.ofMillis(50))
+            .build()) {
+            reloading.load();
+            assertEquals(1, reloading.version());
+
+            Configuration changed = generateNumberedConfig();
+            changed.node("text", "two").set("two");
+            fileLoader.save(changed);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (reloading.version() == 1 && System.nanoTime() < deadline)
+                Thread.sleep(20);
+
+            assertEquals(2, reloading.version());
+            assertEquals("two", reloading.current().node("text", "two").getAsString());
+
+            // A same-size edit that keeps the modification time is still picked up through the checksum.
+            FileTime modified = Files.getLastModifiedTime(path);
+            changed.node("text", "two").set("TWO");
+            fileLoader.save(changed);
+            Files.setLastModifiedTime(path, modified);
+            while (reloading.version() == 2 && System.nanoTime() < deadline)
+                Thread.sleep(20);
+
+            assertEquals(3, reloading.version());
+            assertEquals("TWO", reloading.current().node("text", "two").getAsString());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void asyncTest() throws IOException {
+        Path path = Files.createTempFile("async-", ".json");
+        List<Runnable> tasks = new ArrayList<>();
+        AsyncConfigurationLoader async = AsyncConfigurationLoader.builder()
+            .loader(GsonConfigurationLoader.builder().path(path).build())
+            .executor(tasks::add)
+            .build();
+        try {
+            CompletableFuture<Void> first = async.saveAsync(generateNumberedConfig());
+            Configuration latest = generateNumberedConfig();
+            latest.node("text", "two").set("latest");
+            CompletableFuture<Void> second = async.saveAsync(latest);
+
+            assertSame(first, second);
+            assertEquals(1, tasks.size());
+            tasks.remove(0).run();
+            assertTrue(second.isDone());
+            assertEquals("latest", async.load().node("text", "two").getAsString());
+
+            assertEquals(latest, GsonConfigurationLoader.builder().path(path).build().loadAsync().join());
+
+            List<Runnable> other = new ArrayList<>();
+            CompletableFuture<Void> third = async.saveAsync(generateNumberedConfig(), other::add);
+            assertSame(third, async.saveAsync(latest));
+            assertEquals(1, other.size());
+            assertTrue(tasks.isEmpty());
+            other.remove(0).run();
+            assertTrue(third.isDone());
+            assertEquals(latest, async.load());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void atomicSaveTest() throws IOException {
+        Path directory = Files.createTempDirectory("atomic-");
+        Path path = directory.resolve("config.json");
+        GsonConfigurationLoader atomicLoader = GsonConfigurationLoader.builder()
+            .path(path)
+            .atomic(true)
+            .fsync(true)
+            .saveWindow(Duration.ofMillis(50))
+            .build();
+        try {
+            CompletableFuture<Void> first = atomicLoader.saveAsync(generateNumberedConfig());
+            Configuration latest = generateNumberedConfig();
+            latest.node("text", "two").set("latest");
+            assertSame(first, atomicLoader.saveAsync(latest));
+            first.join();
+
+            List<Runnable> tasks = new ArrayList<>();
+            CompletableFuture<Void> windowed = atomicLoader.saveAsync(generateNumberedConfig(), tasks::add);
+            assertSame(windowed, atomicLoader.saveAsync(latest));
+            while (tasks.isEmpty())
+                Thread.onSpinWait();
+            assertFalse(windowed.isDone());
+            tasks.remove(0).run();
+            windowed.join();
+
+            assertEquals(latest, atomicLoader.load());
+            boolean posix = path.getFileSystem().supportedFileAttributeViews().contains("posix");
+            if (posix)
+                Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-r--r--"));
+            atomicLoader.save(generateNumberedConfig());
+            if (posix)
+                assertEquals(PosixFilePermissions.fromString("rw-r--r--"), Files.getPosixFilePermissions(path));
+            assertEquals(generateNumberedConfig(), atomicLoader.load());
+            try (var files = Files.list(directory)) {
+                assertEquals(List.of(path), files.toList());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void binaryTest() throws IOException {
+        Path path = Files.createTempFile("binary-", ".bin");
+        try {
+            Configuration config = generateNumberedConfig();
+            config.node("int").set(-42);
+            config.node("long").set(Long.MIN_VALUE);
+            config.node("big").set(new BigDecimal("12345678901234567890.5"));
+            config.node("list").set(List.of(1, "two", List.of(3.0f), Map.of("four", 'x')));
+            config.node("empty");
+
+            BinaryConfigurationLoader binaryLoader = BinaryConfigurationLoader.builder().path(path).build();
+            binaryLoader.save(config);
+            Configuration loaded = binaryLoader.load();
+            assertEquals(config, loaded);
+            checkNumberedConfig(loaded);
+
+            byte[] data = Files.readAllBytes(path);
+            Files.write(path, Arrays.copyOf(data, data.length / 2));
+            assertThrows(ConfigParseException.class, binaryLoader::load);
+            byte[] header = Arrays.copyOf(data, 5);
+            for (byte[] length : List.of(new byte[]{-1, -1, -1, -1, 7}, new byte[]{-1, -1, -1, -1, 15})) {
+                byte[] corrupt = Arrays.copyOf(header, header.length + length.length);
+                System.arraycopy(length, 0, corrupt, header.length, length.length);
+                Files.write(path, corrupt);
+                assertThrows(ConfigParseException.class, binaryLoader::load);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void cacheTest() throws IOException {
+        Path path = Files.createTempFile("cached-", ".json");
+        Path cachePath = path.resolveSibling(path.getFileName() + ".bin");
+        AtomicInteger parses = new AtomicInteger();
+        GsonConfigurationLoader jsonLoader = GsonConfigurationLoader.builder().path(path).build();
+        ConfigurationLoader countingLoader = new ConfigurationLoader() {
+            @Override
+            public Configuration load() throws IOException {
+                parses.incrementAndGet();
+                return jsonLoader.load();
+            }
+
+            @Override
+            public void save(Configuration config) throws IOException {
+                jsonLoader.save(config);
+            }
+        };
+        CachingConfigurationLoader cachingLoader = CachingConfigurationLoader.builder()
+            .loader(countingLoader)
+            .path(path)
+            .build();
+        try {
+            jsonLoader.save(generateNumberedConfig());
+            assertEquals(generateNumberedConfig(), cachingLoader.load());
+            assertTrue(Files.exists(cachePath));
+            assertEquals(generateNumberedConfig(), cachingLoader.load());
+            assertEquals(1, parses.get());
+
+            Configuration changed = generateNumberedConfig();
+            changed.node("text", "two").set("two");
+            jsonLoader.save(changed);
+            assertEquals(changed, cachingLoader.load());
+            assertEquals(2, parses.get());
+
+            Configuration typed = generateNumberedConfig();
+            typed.node("char").set('c');
+            typed.node("float").set(1.5f);
+            typed.node("set").set(Set.of("single"));
+            typed.node("empty");
+            cachingLoader.save(typed);
+            int saved = parses.get();
+            Configuration cached = cachingLoader.load();
+            assertEquals(saved, parses.get());
+            assertEquals(jsonLoader.load(), cached);
+        } finally {
+            Files.delete(path);
+            Files.deleteIfExists(cachePath);
+        }
+    }
+
+    @Test
+    void lazyLoadTest() throws IOException {
+        Path path = Files.createTempFile("lazy-", ".json");
+        try {
+            Configuration config = new Configuration();
+            config.node("version").set(3);
+            config.node("regions", "eu", "hosts").set(List.of("a", "b"));
+            config.node("regions", "eu", "limits", "players").set(100);
+            config.node("regions", "us \"east\"", "hosts").set(List.of("c"));
+            config.node("regions").set(Map.of("default", "eu"));
+            GsonConfigurationLoader.builder().path(path).build().save(config);
+
+            GsonConfigurationLoader lazyLoader = GsonConfigurationLoader.builder().path(path).lazyDepth(2).build();
+            Configuration lazy = lazyLoader.load();
+            ConfigNode eu = lazy.find("regions", "eu").orElseThrow();
+            ConfigNode us = lazy.find("regions", "us \"east\"").orElseThrow();
+            assertFalse(eu.isLoaded());
+            assertFalse(us.isLoaded());
+            assertEquals(3, lazy.node("version").getAsInt());
+            assertEquals(Map.of("default", "eu"), lazy.node("regions").get());
+
+            assertEquals(100, lazy.node("regions", "eu", "limits", "players").getAsInt());
+            assertTrue(eu.isLoaded());
+            assertFalse(us.isLoaded());
+            assertEquals(config, lazy);
+            assertTrue(us.isLoaded());
+
+            // Deferred nodes must survive the file being rewritten in place underneath them.
+            Configuration rewritten = lazyLoader.load();
+            lazyLoader.save(rewritten);
+            assertEquals(config, rewritten);
+            assertEquals(config, lazyLoader.load());
+
+            // Lenient files load the same as without a lazy depth.
+            Files.writeString(path, """
+                {
+                  // "version": 2,
+                  "version": 3,
+                  regions: {
+                    'eu': { "hosts": ['a', 'b'], /* } */ "limits": { "players" = 100 } };
+                    "us": { "hosts": ["c"] # ]
+                    }
+                  }
+                } trailing
+                """);
+            Configuration lenient = lazyLoader.load();
+            assertEquals(GsonConfigurationLoader.builder().path(path).build().load(), lenient);
+            assertEquals(100, lenient.node("regions", "eu", "limits", "players").getAsInt());
+            assertEquals(List.of("c"), lenient.node("regions", "us", "hosts").get());
+        } finally {
+            Files.delete(path);
+        }
+    }
 }
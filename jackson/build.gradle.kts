@@ -15,7 +15,13 @@
  */
 
 dependencies {
+    implementation(project(":core"))
+    implementation("com.fasterxml.jackson.core:jackson-core:2.13.3")
 
+    testImplementation(project(":gson"))
+    testImplementation("com.google.code.gson:gson:2.9.0")
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
+    testImplementation("org.junit.jupiter:junit-jupiter-engine:5.8.2")
 }
 
 tasks.withType<Jar> {
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+import de.natrox.common.validate.Check;
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.exception.ConfigParseException;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import de.natrox.configuration.serialize.TypeCapabilities;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.UnknownNullability;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Reads and writes the same layout as the Gson backend, including its pretty printing and escaping.
+public class JacksonConfigurationLoader implements ConfigurationLoader {
+
+    public static final TypeCapabilities CAPABILITIES = TypeCapabilities.of(String.class, Boolean.class, Number.class, Character.class, Collection.class, Map.class);
+
+    private static final JsonFactory DEFAULT_FACTORY = new JsonFactory();
+
+    private final Path configPath;
+    private final JsonFactory factory;
+    private final SerializerRegistry registry;
+
+    public JacksonConfigurationLoader(final Path configPath) {
+        this(configPath, DEFAULT_FACTORY, SerializerRegistry.getDefault());
+    }
+
+    public JacksonConfigurationLoader(final Path configPath, final JsonFactory factory, final SerializerRegistry registry) {
+        this.configPath = configPath;
+        this.factory = factory;
+        this.registry = registry;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Configuration load() throws IOException {
+        try (InputStream in = Files.newInputStream(this.configPath);
+             JsonParser parser = this.factory.createParser(in)) {
+            Configuration config = new Configuration();
+            if (parser.nextToken() == null)
+                throw new ConfigParseException("Configuration file " + this.configPath + " is empty.");
+            this.readNode(parser, config);
+            return config;
+        }
+    }
+
+    @Override
+    public void save(Configuration config) throws IOException {
+        try (OutputStream out = Files.newOutputStream(this.configPath);
+             JsonGenerator generator = this.factory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setPrettyPrinter(new GsonStylePrettyPrinter());
+            generator.setCharacterEscapes(GsonStyleEscapes.INSTANCE);
+            this.writeNode(generator, config);
+        }
+    }
+
+    private void readNode(JsonParser parser, ConfigNode node) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            this.readLeaf(parser, node);
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("value".equals(name))
+                this.readLeaf(parser, node);
+            else {
+                ConfigNode subNode = new ConfigNode(name);
+                this.readNode(parser, subNode);
+                node.addNode(subNode);
+            }
+        }
+    }
+
+    // Leaf numbers and booleans go straight into the node's primitive slot without boxing.
+    private void readLeaf(JsonParser parser, ConfigNode node) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> {
+                switch (parser.getNumberType()) {
+                    case INT -> node.set(parser.getIntValue());
+                    case LONG -> node.set(parser.getLongValue());
+                    default -> node.set(parser.getBigIntegerValue());
+                }
+            }
+            case VALUE_NUMBER_FLOAT -> node.set(parser.getDoubleValue());
+            case VALUE_TRUE -> node.set(true);
+            case VALUE_FALSE -> node.set(false);
+            default -> node.set(this.readValue(parser));
+        }
+    }
+
+    private @Nullable Object readValue(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return switch (parser.getNumberType()) {
+                    case INT -> parser.getIntValue();
+                    case LONG -> parser.getLongValue();
+                    default -> parser.getBigIntegerValue();
+                };
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+                return false;
+            case VALUE_NULL:
+                return null;
+            case START_ARRAY:
+                List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY)
+                    list.add(this.readValue(parser));
+                return list;
+            case START_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    map.put(name, this.readValue(parser));
+                }
+                return map;
+            default:
+                throw new ConfigParseException("Unexpected token " + parser.currentToken() + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    private void writeNode(JsonGenerator generator, ConfigNode node) throws IOException {
+        generator.writeStartObject();
+        if (node.hasValue()) {
+            generator.writeFieldName("value");
+            this.writeValue(generator, node.get());
+        }
+        for (ConfigNode subNode : node.subNodes().values()) {
+            if (!subNode.hasSubNodes() && !subNode.hasValue())
+                continue;
+            generator.writeFieldName(subNode.id());
+            if (subNode.hasSubNodes())
+                this.writeNode(generator, subNode);
+            else
+                this.writeValue(generator, subNode.get());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeValue(JsonGenerator generator, @Nullable Object value) throws IOException {
+        if (value == null)
+            generator.writeNull();
+        else if (value instanceof String)
+            generator.writeString((String) value);
+        else if (value instanceof Boolean)
+            generator.writeBoolean((boolean) value);
+        else if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            generator.writeNumber(((Number) value).intValue());
+        else if (value instanceof Long)
+            generator.writeNumber((long) value);
+        else if (value instanceof Double)
+            generator.writeNumber((double) value);
+        else if (value instanceof Float)
+            generator.writeNumber((float) value);
+        else if (value instanceof Number)
+            generator.writeNumber(value.toString());
+        else if (value instanceof Character)
+            generator.writeString(value.toString());
+        else if (value instanceof Collection<?>) {
+            generator.writeStartArray();
+            for (Object element : (Collection<?>) value)
+                this.writeValue(generator, element);
+            generator.writeEndArray();
+        } else if (value instanceof Map<?, ?>) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                this.writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else {
+            Object serialized = this.registry.serialize(value, CAPABILITIES);
+            if (serialized == null)
+                throw new ConfigException("Serializer for " + value.getClass() + " returned null.");
+            if (serialized != value && CAPABILITIES.test(serialized.getClass()))
+                this.writeValue(generator, serialized);
+            else
+                this.writeObject(generator, value);
+        }
+    }
+
+    // Values without a serializer are written field by field, as Gson does with its reflective fallback.
+    private void writeObject(JsonGenerator generator, Object value) throws IOException {
+        ConfigNode node = new ConfigNode("value");
+        node.unbind(value, this.registry);
+        if (!node.hasSubNodes())
+            throw new ConfigException("Value (" + value.getClass() + ") can not be written as JSON.");
+        this.writeFields(generator, node);
+    }
+
+    private void writeFields(JsonGenerator generator, ConfigNode node) throws IOException {
+        generator.writeStartObject();
+        for (ConfigNode subNode : node.subNodes().values()) {
+            generator.writeFieldName(subNode.id());
+            if (subNode.hasSubNodes())
+                this.writeFields(generator, subNode);
+            else
+                this.writeValue(generator, subNode.get());
+        }
+        generator.writeEndObject();
+    }
+
+    // Same layout as Gson's pretty printing: two spaces per level, "name": value and no trailing newline.
+    private static final class GsonStylePrettyPrinter implements PrettyPrinter {
+
+        private int depth;
+
+        private void newLine(JsonGenerator generator) throws IOException {
+            generator.writeRaw('\n');
+            for (int i = 0; i < this.depth; i++)
+                generator.writeRaw("  ");
+        }
+
+        @Override
+        public void writeRootValueSeparator(JsonGenerator generator) throws IOException {
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void writeStartObject(JsonGenerator generator) throws IOException {
+            generator.writeRaw('{');
+            this.depth++;
+        }
+
+        @Override
+        public void writeEndObject(JsonGenerator generator, int entries) throws IOException {
+            this.depth--;
+            if (entries > 0)
+                this.newLine(generator);
+            generator.writeRaw('}');
+        }
+
+        @Override
+        public void writeObjectEntrySeparator(JsonGenerator generator) throws IOException {
+            generator.writeRaw(',');
+            this.newLine(generator);
+        }
+
+        @Override
+        public void writeObjectFieldValueSeparator(JsonGenerator generator) throws IOException {
+            generator.writeRaw(": ");
+        }
+
+        @Override
+        public void writeStartArray(JsonGenerator generator) throws IOException {
+            generator.writeRaw('[');
+            this.depth++;
+        }
+
+        @Override
+        public void writeEndArray(JsonGenerator generator, int values) throws IOException {
+            this.depth--;
+            if (values > 0)
+                this.newLine(generator);
+            generator.writeRaw(']');
+        }
+
+        @Override
+        public void writeArrayValueSeparator(JsonGenerator generator) throws IOException {
+            generator.writeRaw(',');
+            this.newLine(generator);
+        }
+
+        @Override
+        public void beforeArrayValues(JsonGenerator generator) throws IOException {
+            this.newLine(generator);
+        }
+
+        @Override
+        public void beforeObjectEntries(JsonGenerator generator) throws IOException {
+            this.newLine(generator);
+        }
+    }
+
+    // Gson escapes HTML characters, line and paragraph separators and control characters with lower case hex.
+    private static final class GsonStyleEscapes extends CharacterEscapes {
+
+        private static final long serialVersionUID = 1L;
+        private static final GsonStyleEscapes INSTANCE = new GsonStyleEscapes();
+
+        private final int[] escapes;
+
+        private GsonStyleEscapes() {
+            this.escapes = CharacterEscapes.standardAsciiEscapesForJSON();
+            for (int c = 0; c < 0x20; c++) {
+                if (c != '\t' && c != '\n' && c != '\r' && c != '\b' && c != '\f')
+                    this.escapes[c] = CharacterEscapes.ESCAPE_CUSTOM;
+            }
+            for (char c : new char[]{'<', '>', '&', '=', '\''})
+                this.escapes[c] = CharacterEscapes.ESCAPE_CUSTOM;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return this.escapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int c) {
+            if (c < 0x80 || c == 0x2028 || c == 0x2029)
+                return new SerializedString(String.format("\\u%04x", c));
+            return null;
+        }
+    }
+
+    public final static class Builder implements ConfigurationLoader.Builder<JacksonConfigurationLoader> {
+
+        private Path configPath;
+        private JsonFactory factory = DEFAULT_FACTORY;
+        private SerializerRegistry registry = SerializerRegistry.getDefault();
+
+        public Builder path(final Path configPath) {
+            this.configPath = configPath;
+            return this;
+        }
+
+        public Builder factory(final JsonFactory factory) {
+            this.factory = factory;
+            return this;
+        }
+
+        public Builder registry(final SerializerRegistry registry) {
+            this.registry = registry;
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability JacksonConfigurationLoader build() {
+            Check.stateCondition(this.configPath == null, "A path is required.");
+            return new JacksonConfigurationLoader(this.configPath, this.factory, this.registry);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.serialize.Serializer;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacksonConfigurationLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    private static Configuration generateConfig() {
+        Configuration config = new Configuration();
+        config.node("string").set("<tag> & 'quote' =  é\u0001\t");
+        config.node("int").set(42);
+        config.node("long").set(Long.MAX_VALUE);
+        config.node("big").set(new BigInteger("123456789012345678901234567890"));
+        config.node("double").set(1.5);
+        config.node("bool").set(true);
+        config.node("null").set((Object) null);
+        config.node("char").set('c');
+        config.node("list").set(List.of(1, "two", List.of(), Map.of()));
+        config.node("map").set(Map.of("key", 3.0));
+        config.node("nested").set("own value");
+        config.node("nested", "deeper", "leaf").set(7);
+        config.node("empty", "list").set(List.of());
+        return config;
+    }
+
+    @Test
+    void roundTripTest() throws IOException {
+        Path file = this.directory.resolve("config.json");
+        JacksonConfigurationLoader loader = JacksonConfigurationLoader.builder().path(file).build();
+        loader.save(generateConfig());
+
+        Configuration loaded = loader.load();
+        assertEquals("<tag> & 'quote' =  é\u0001\t", loaded.node("string").getAsString());
+        assertEquals(42, loaded.node("int").get());
+        assertEquals(Long.MAX_VALUE, loaded.node("long").get());
+        assertEquals(new BigInteger("123456789012345678901234567890"), loaded.node("big").get());
+        assertEquals(1.5, loaded.node("double").get());
+        assertTrue(loaded.node("bool").getAsBoolean());
+        assertNull(loaded.node("null").get());
+        assertEquals("c", loaded.node("char").get());
+        assertEquals(List.of(1, "two", List.of(), Map.of()), loaded.node("list").get());
+        // Map values share the object layout with child nodes, so they come back as nodes.
+        assertEquals(3.0, loaded.node("map", "key").get());
+        assertEquals("own value", loaded.node("nested").get());
+        assertEquals(7, loaded.node("nested", "deeper", "leaf").get());
+    }
+
+    @Test
+    void gsonCompatibilityTest() throws IOException {
+        Path jacksonFile = this.directory.resolve("jackson.json");
+        Path gsonFile = this.directory.resolve("gson.json");
+        JacksonConfigurationLoader jackson = JacksonConfigurationLoader.builder().path(jacksonFile).build();
+        GsonConfigurationLoader gson = GsonConfigurationLoader.builder().path(gsonFile).build();
+
+        Configuration config = generateConfig();
+        jackson.save(config);
+        gson.save(config);
+        assertEquals(Files.readString(gsonFile), Files.readString(jacksonFile));
+
+        Configuration fromGson = new JacksonConfigurationLoader(gsonFile).load();
+        Configuration fromJackson = new GsonConfigurationLoader(jacksonFile).load();
+        assertTrue(fromGson.equalsNode(fromJackson));
+        assertEquals(gson.load().contentHash(), fromGson.contentHash());
+    }
+
+    @Test
+    void nullSerializerTest() {
+        SerializerRegistry registry = SerializerRegistry.builder()
+            .register(new Serializer<>(StringBuilder.class) {
+                @Override
+                public StringBuilder deserialize(Object value) {
+                    return new StringBuilder(value.toString());
+                }
+
+                @Override
+                public Object serialize(StringBuilder value, Predicate<Class<?>> typeSupported) {
+                    return null;
+                }
+            })
+            .build();
+        JacksonConfigurationLoader loader = JacksonConfigurationLoader.builder()
+            .path(this.directory.resolve("config.json"))
+            .registry(registry)
+            .build();
+        Configuration config = new Configuration();
+        config.node("builder").set(new StringBuilder("abc"));
+        assertThrows(ConfigException.class, () -> loader.save(config));
+    }
+
+    @Test
+    void objectFallbackTest() throws IOException {
+        Path jacksonFile = this.directory.resolve("jackson.json");
+        Path gsonFile = this.directory.resolve("gson.json");
+        Configuration config = new Configuration();
+        config.node("address").set(new Address("main", 5, List.of("a"), new Address("side", 1, List.of(), null)));
+        config.node("addresses").set(List.of(new Address("last", 2, List.of(), null)));
+
+        JacksonConfigurationLoader.builder().path(jacksonFile).build().save(config);
+        GsonConfigurationLoader.builder().path(gsonFile).build().save(config);
+        assertEquals(Files.readString(gsonFile), Files.readString(jacksonFile));
+
+        Configuration loaded = new JacksonConfigurationLoader(jacksonFile).load();
+        assertEquals("side", loaded.node("address", "next", "street").get());
+        assertEquals(5, loaded.node("address", "number").get());
+    }
+
+    static class Address {
+
+        private final String street;
+        private final int number;
+        private final List<String> tags;
+        private final Address next;
+
+        Address(String street, int number, List<String> tags, Address next) {
+            this.street = street;
+            this.number = number;
+            this.tags = tags;
+            this.next = next;
+        }
+
+        private Address() {
+            this(null, 0, null, null);
+        }
+    }
+}
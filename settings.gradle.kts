@@ -20,5 +20,6 @@ include(
     ":core",
     ":gson",
     ":jackson",
-    ":yaml"
+    ":yaml",
+    ":benchmarks"
 )
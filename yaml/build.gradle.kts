@@ -15,7 +15,11 @@
  */
 
 dependencies {
+    implementation(project(":core"))
+    implementation("org.snakeyaml:snakeyaml-engine:2.3")
 
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
+    testImplementation("org.junit.jupiter:junit-jupiter-engine:5.8.2")
 }
 
 tasks.withType<Jar> {
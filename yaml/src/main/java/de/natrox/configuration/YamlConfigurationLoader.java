@@ -0,0 +1,465 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.common.validate.Check;
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.exception.ConfigParseException;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import de.natrox.configuration.serialize.TypeCapabilities;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.UnknownNullability;
+import org.snakeyaml.engine.v2.api.DumpSettings;
+import org.snakeyaml.engine.v2.api.LoadSettings;
+import org.snakeyaml.engine.v2.api.StreamDataWriter;
+import org.snakeyaml.engine.v2.common.Anchor;
+import org.snakeyaml.engine.v2.common.FlowStyle;
+import org.snakeyaml.engine.v2.common.ScalarStyle;
+import org.snakeyaml.engine.v2.emitter.Emitter;
+import org.snakeyaml.engine.v2.events.*;
+import org.snakeyaml.engine.v2.exceptions.YamlEngineException;
+import org.snakeyaml.engine.v2.nodes.Tag;
+import org.snakeyaml.engine.v2.parser.ParserImpl;
+import org.snakeyaml.engine.v2.resolver.ScalarResolver;
+import org.snakeyaml.engine.v2.scanner.StreamReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Uses the same layout as the JSON backends: a mapping is a node, its "value" key holds the node's own value.
+// A node has exactly one parent, so an alias of a mapping can not share the anchored nodes. Each alias copies
+// them level by level on first access, and becomes a full copy once it is read completely or saved. Aliases used
+// as values share one map per anchor, aliased sequences share their list.
+public class YamlConfigurationLoader implements ConfigurationLoader {
+
+    public static final TypeCapabilities CAPABILITIES = TypeCapabilities.of(String.class, Boolean.class, Number.class, Character.class, Collection.class, Map.class);
+
+    private static final LoadSettings DEFAULT_LOAD_SETTINGS = LoadSettings.builder().build();
+    private static final DumpSettings DEFAULT_DUMP_SETTINGS = DumpSettings.builder().setIndent(2).build();
+
+    private final Path configPath;
+    private final LoadSettings loadSettings;
+    private final DumpSettings dumpSettings;
+    private final SerializerRegistry registry;
+
+    public YamlConfigurationLoader(final Path configPath) {
+        this(configPath, DEFAULT_LOAD_SETTINGS, DEFAULT_DUMP_SETTINGS, SerializerRegistry.getDefault());
+    }
+
+    public YamlConfigurationLoader(final Path configPath, final LoadSettings loadSettings, final DumpSettings dumpSettings,
+                                   final SerializerRegistry registry) {
+        this.configPath = configPath;
+        this.loadSettings = loadSettings;
+        this.dumpSettings = dumpSettings;
+        this.registry = registry;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Configuration load() throws IOException {
+        try (Reader reader = ChannelReader.open(this.configPath)) {
+            return new EventReader(new ParserImpl(this.loadSettings, new StreamReader(this.loadSettings, reader)),
+                this.loadSettings.getScalarResolver()).read();
+        } catch (YamlEngineException e) {
+            throw new ConfigParseException("Configuration file " + this.configPath + " is not valid YAML.", e);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void save(Configuration config) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(this.configPath, StandardCharsets.UTF_8)) {
+            EventWriter events = new EventWriter(new Emitter(this.dumpSettings, new WriterOutput(writer)),
+                this.dumpSettings.getScalarResolver());
+            events.write(config);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Builds the node tree straight from parser events, without composing a YAML node graph first.
+    private static final class EventReader {
+
+        private final ParserImpl parser;
+        private final ScalarResolver resolver;
+        // Anchored mappings are kept as detached nodes, every other anchor as the value it produced.
+        private final Map<Anchor, Object> anchors = new HashMap<>();
+        private final Map<Anchor, Map<String, Object>> anchorValues = new HashMap<>();
+
+        private EventReader(ParserImpl parser, ScalarResolver resolver) {
+            this.parser = parser;
+            this.resolver = resolver;
+        }
+
+        private Configuration read() {
+            Configuration config = new Configuration();
+            this.expect(Event.ID.StreamStart);
+            if (this.parser.checkEvent(Event.ID.StreamEnd))
+                return config;
+            this.expect(Event.ID.DocumentStart);
+            this.readNode(config);
+            this.expect(Event.ID.DocumentEnd);
+            if (!this.parser.checkEvent(Event.ID.StreamEnd))
+                throw new ConfigParseException("Only a single YAML document is supported, found " + this.parser.peekEvent() + ".");
+            return config;
+        }
+
+        private Event expect(Event.ID id) {
+            Event event = this.parser.next();
+            if (event.getEventId() != id)
+                throw new ConfigParseException("Expected " + id + " but found " + event + ".");
+            return event;
+        }
+
+        // Fills an empty node that is not attached yet.
+        private void readNode(ConfigNode node) {
+            Event event = this.parser.next();
+            switch (event.getEventId()) {
+                case Alias -> {
+                    Object target = this.resolveAlias((AliasEvent) event);
+                    if (target instanceof ConfigNode)
+                        node.defer(() -> lazyCopy((ConfigNode) target));
+                    else if (target instanceof Map<?, ?>)
+                        fill(node, (Map<?, ?>) target);
+                    else
+                        node.set(target);
+                }
+                case MappingStart -> {
+                    Optional<Anchor> anchor = ((MappingStartEvent) event).getAnchor();
+                    if (anchor.isEmpty()) {
+                        this.readMapping(node);
+                        return;
+                    }
+                    // The anchor's own place is loaded lazily as well, so no alias can see later changes to it.
+                    ConfigNode shared = new ConfigNode(anchor.get().getValue());
+                    this.readMapping(shared);
+                    this.anchors.put(anchor.get(), shared);
+                    node.defer(() -> lazyCopy(shared));
+                }
+                default -> node.set(this.readValue(event));
+            }
+        }
+
+        private void readMapping(ConfigNode node) {
+            while (!this.parser.checkEvent(Event.ID.MappingEnd)) {
+                String key = this.readKey();
+                if ("value".equals(key))
+                    node.set(this.readValue(this.parser.next()));
+                else {
+                    ConfigNode subNode = new ConfigNode(key);
+                    this.readNode(subNode);
+                    node.addNode(subNode);
+                }
+            }
+            this.parser.next();
+        }
+
+        private String readKey() {
+            Event event = this.parser.next();
+            if (event.getEventId() != Event.ID.Scalar && event.getEventId() != Event.ID.Alias)
+                throw new ConfigParseException("Only scalar mapping keys are supported, found " + event + ".");
+            return String.valueOf(this.readValue(event));
+        }
+
+        private @Nullable Object readValue(Event event) {
+            switch (event.getEventId()) {
+                case Alias: {
+                    Object target = this.resolveAlias((AliasEvent) event);
+                    if (target instanceof ConfigNode)
+                        return this.anchorValues.computeIfAbsent(((AliasEvent) event).getAlias(), anchor -> toValue((ConfigNode) target));
+                    return target;
+                }
+                case Scalar: {
+                    ScalarEvent scalar = (ScalarEvent) event;
+                    Object value = this.construct(scalar);
+                    scalar.getAnchor().ifPresent(anchor -> this.anchors.put(anchor, value));
+                    return value;
+                }
+                case SequenceStart: {
+                    List<Object> list = new ArrayList<>();
+                    while (!this.parser.checkEvent(Event.ID.SequenceEnd))
+                        list.add(this.readValue(this.parser.next()));
+                    this.parser.next();
+                    // Aliases of a sequence share the list instead of copying it.
+                    ((NodeEvent) event).getAnchor().ifPresent(anchor -> this.anchors.put(anchor, list));
+                    return list;
+                }
+                case MappingStart: {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    while (!this.parser.checkEvent(Event.ID.MappingEnd)) {
+                        String key = this.readKey();
+                        map.put(key, this.readValue(this.parser.next()));
+                    }
+                    this.parser.next();
+                    ((NodeEvent) event).getAnchor().ifPresent(anchor -> this.anchors.put(anchor, map));
+                    return map;
+                }
+                default:
+                    throw new ConfigParseException("Unexpected event " + event + ".");
+            }
+        }
+
+        private Object resolveAlias(AliasEvent event) {
+            Anchor anchor = event.getAlias();
+            if (!this.anchors.containsKey(anchor))
+                throw new ConfigParseException("Unknown or recursive alias " + anchor + ".");
+            return this.anchors.get(anchor);
+        }
+
+        private @Nullable Object construct(ScalarEvent scalar) {
+            String text = scalar.getValue();
+            String tag = scalar.getTag().filter(value -> !"!".equals(value))
+                .orElseGet(() -> scalar.isPlain() ? this.resolver.resolve(text, true).getValue() : Tag.STR.getValue());
+            if (Tag.NULL.getValue().equals(tag))
+                return null;
+            if (Tag.BOOL.getValue().equals(tag))
+                return Boolean.parseBoolean(text);
+            try {
+                if (Tag.INT.getValue().equals(tag))
+                    return parseInteger(text);
+                if (Tag.FLOAT.getValue().equals(tag))
+                    return parseFloat(text);
+            } catch (NumberFormatException e) {
+                throw new ConfigParseException("Scalar '" + text + "' is not a valid " + tag + ".", e);
+            }
+            return text;
+        }
+
+        private static Number parseInteger(String text) {
+            try {
+                long value = Long.parseLong(text);
+                if (value == (int) value)
+                    return (int) value;
+                return value;
+            } catch (NumberFormatException e) {
+                return new BigInteger(text);
+            }
+        }
+
+        private static double parseFloat(String text) {
+            return switch (text) {
+                case ".inf" -> Double.POSITIVE_INFINITY;
+                case "-.inf" -> Double.NEGATIVE_INFINITY;
+                case ".nan" -> Double.NaN;
+                default -> Double.parseDouble(text);
+            };
+        }
+
+        // Only the requested level is copied; deeper mappings stay deferred until they are accessed.
+        private static ConfigNode lazyCopy(ConfigNode source) {
+            ConfigNode copy = new ConfigNode(source.id());
+            if (source.hasValue())
+                copy.set(source.get());
+            for (ConfigNode subNode : source.subNodes().values()) {
+                ConfigNode target = new ConfigNode(subNode.id());
+                if (subNode.hasSubNodes())
+                    target.defer(() -> lazyCopy(subNode));
+                else if (subNode.hasValue())
+                    target.set(subNode.get());
+                else
+                    continue;
+                copy.addNode(target);
+            }
+            return copy;
+        }
+
+        private static Map<String, Object> toValue(ConfigNode node) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (node.hasValue())
+                map.put("value", node.get());
+            for (ConfigNode subNode : node.subNodes().values())
+                map.put(subNode.id(), subNode.hasSubNodes() ? toValue(subNode) : subNode.get());
+            return map;
+        }
+
+        private static void fill(ConfigNode node, Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if ("value".equals(key)) {
+                    node.set(entry.getValue());
+                    continue;
+                }
+                ConfigNode subNode = new ConfigNode(key);
+                if (entry.getValue() instanceof Map<?, ?>)
+                    fill(subNode, (Map<?, ?>) entry.getValue());
+                else
+                    subNode.set(entry.getValue());
+                node.addNode(subNode);
+            }
+        }
+    }
+
+    // Emits events while walking the tree, so the document is never held in memory as a whole.
+    private final class EventWriter {
+
+        private final Emitter emitter;
+        private final ScalarResolver resolver;
+
+        private EventWriter(Emitter emitter, ScalarResolver resolver) {
+            this.emitter = emitter;
+            this.resolver = resolver;
+        }
+
+        private void write(Configuration config) {
+            this.emitter.emit(new StreamStartEvent());
+            this.emitter.emit(new DocumentStartEvent(false, Optional.empty(), Map.of()));
+            this.writeNode(config);
+            this.emitter.emit(new DocumentEndEvent(false));
+            this.emitter.emit(new StreamEndEvent());
+        }
+
+        private void writeNode(ConfigNode node) {
+            this.emitter.emit(new MappingStartEvent(Optional.empty(), Optional.empty(), true, FlowStyle.BLOCK));
+            if (node.hasValue()) {
+                this.writeString("value");
+                this.writeValue(node.get());
+            }
+            for (ConfigNode subNode : node.subNodes().values()) {
+                if (!subNode.hasSubNodes() && !subNode.hasValue())
+                    continue;
+                this.writeString(subNode.id());
+                if (subNode.hasSubNodes())
+                    this.writeNode(subNode);
+                else
+                    this.writeValue(subNode.get());
+            }
+            this.emitter.emit(new MappingEndEvent());
+        }
+
+        private void writeValue(@Nullable Object value) {
+            if (value == null)
+                this.writeScalar(Tag.NULL, "null");
+            else if (value instanceof String)
+                this.writeString((String) value);
+            else if (value instanceof Boolean)
+                this.writeScalar(Tag.BOOL, value.toString());
+            else if (value instanceof Double || value instanceof Float || value instanceof BigDecimal)
+                this.writeScalar(Tag.FLOAT, formatFloat((Number) value));
+            else if (value instanceof Number)
+                this.writeScalar(Tag.INT, value.toString());
+            else if (value instanceof Character)
+                this.writeString(value.toString());
+            else if (value instanceof Collection<?>) {
+                this.emitter.emit(new SequenceStartEvent(Optional.empty(), Optional.empty(), true, FlowStyle.BLOCK));
+                for (Object element : (Collection<?>) value)
+                    this.writeValue(element);
+                this.emitter.emit(new SequenceEndEvent());
+            } else if (value instanceof Map<?, ?>) {
+                this.emitter.emit(new MappingStartEvent(Optional.empty(), Optional.empty(), true, FlowStyle.BLOCK));
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    this.writeString(String.valueOf(entry.getKey()));
+                    this.writeValue(entry.getValue());
+                }
+                this.emitter.emit(new MappingEndEvent());
+            } else {
+                Object serialized = YamlConfigurationLoader.this.registry.serialize(value, CAPABILITIES);
+                if (serialized == null)
+                    throw new ConfigException("Serializer for " + value.getClass() + " returned null.");
+                if (serialized == value || !CAPABILITIES.test(serialized.getClass()))
+                    throw new ConfigException("Value (" + value.getClass() + ") can not be written as YAML.");
+                this.writeValue(serialized);
+            }
+        }
+
+        private void writeString(String value) {
+            this.writeScalar(Tag.STR, value);
+        }
+
+        // The tag is only written when the plain text would resolve to a different type, e.g. a string "true".
+        private void writeScalar(Tag tag, String text) {
+            boolean plain = tag.equals(this.resolver.resolve(text, true));
+            this.emitter.emit(new ScalarEvent(Optional.empty(), Optional.of(tag.getValue()),
+                new ImplicitTuple(plain, tag.equals(Tag.STR)), text, ScalarStyle.PLAIN));
+        }
+
+        private static String formatFloat(Number value) {
+            double number = value.doubleValue();
+            if (Double.isNaN(number))
+                return ".nan";
+            if (Double.isInfinite(number))
+                return number > 0 ? ".inf" : "-.inf";
+            return value.toString().replace('E', 'e');
+        }
+    }
+
+    private record WriterOutput(Writer writer) implements StreamDataWriter {
+
+        @Override
+        public void write(String str) {
+            try {
+                this.writer.write(str);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            try {
+                this.writer.write(str, off, len);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public final static class Builder implements ConfigurationLoader.Builder<YamlConfigurationLoader> {
+
+        private Path configPath;
+        private LoadSettings loadSettings = DEFAULT_LOAD_SETTINGS;
+        private DumpSettings dumpSettings = DEFAULT_DUMP_SETTINGS;
+        private SerializerRegistry registry = SerializerRegistry.getDefault();
+
+        public Builder path(final Path configPath) {
+            this.configPath = configPath;
+            return this;
+        }
+
+        public Builder loadSettings(final LoadSettings loadSettings) {
+            this.loadSettings = loadSettings;
+            return this;
+        }
+
+        public Builder dumpSettings(final DumpSettings dumpSettings) {
+            this.dumpSettings = dumpSettings;
+            return this;
+        }
+
+        public Builder registry(final SerializerRegistry registry) {
+            this.registry = registry;
+            return this;
+        }
+
+        @Override
+        public @UnknownNullability YamlConfigurationLoader build() {
+            Check.stateCondition(this.configPath == null, "A path is required.");
+            return new YamlConfigurationLoader(this.configPath, this.loadSettings, this.dumpSettings, this.registry);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020-2022 NatroxMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.natrox.configuration;
+
+import de.natrox.configuration.exception.ConfigException;
+import de.natrox.configuration.exception.ConfigParseException;
+import de.natrox.configuration.serialize.Serializer;
+import de.natrox.configuration.serialize.SerializerRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlConfigurationLoaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripTest() throws IOException {
+        Configuration config = new Configuration();
+        config.node("string").set("plain text");
+        config.node("numeric string").set("123");
+        config.node("bool string").set("true");
+        config.node("empty string").set("");
+        config.node("multi line").set("first\nsecond: third");
+        config.node("int").set(42);
+        config.node("long").set(Long.MAX_VALUE);
+        config.node("big").set(new BigInteger("123456789012345678901234567890"));
+        config.node("double").set(1.0E-10);
+        config.node("infinity").set(Double.NEGATIVE_INFINITY);
+        config.node("bool").set(false);
+        config.node("list").set(List.of(1, "two", List.of(), Map.of("key", 3)));
+        config.node("nested").set("own value");
+        config.node("nested", "deeper", "leaf").set(7);
+
+        Path file = this.directory.resolve("config.yml");
+        YamlConfigurationLoader loader = YamlConfigurationLoader.builder().path(file).build();
+        loader.save(config);
+        Configuration loaded = loader.load();
+
+        assertEquals(config, loaded);
+        assertEquals("plain text", loaded.node("string").get());
+        assertEquals("123", loaded.node("numeric string").get());
+        assertEquals("true", loaded.node("bool string").get());
+        assertEquals("", loaded.node("empty string").get());
+        assertEquals("first\nsecond: third", loaded.node("multi line").get());
+        assertEquals(42, loaded.node("int").get());
+        assertEquals(Long.MAX_VALUE, loaded.node("long").get());
+        assertEquals(new BigInteger("123456789012345678901234567890"), loaded.node("big").get());
+        assertEquals(1.0E-10, loaded.node("double").get());
+        assertEquals(Double.NEGATIVE_INFINITY, loaded.node("infinity").get());
+        assertFalse(loaded.node("bool").getAsBoolean());
+        assertEquals(List.of(1, "two", List.of(), Map.of("key", 3)), loaded.node("list").get());
+        assertEquals("own value", loaded.node("nested").get());
+        assertEquals(7, loaded.node("nested", "deeper", "leaf").get());
+    }
+
+    @Test
+    void aliasTest() throws IOException {
+        Path file = this.directory.resolve("aliases.yml");
+        Files.writeString(file, """
+            defaults: &defaults
+              host: localhost
+              port: 8080
+              tls:
+                enabled: true
+            ports: &ports [80, 443]
+            production: *defaults
+            staging:
+              value: *ports
+              server: *defaults
+            fallbacks: [*defaults, *defaults]
+            """);
+        Configuration config = new YamlConfigurationLoader(file).load();
+
+        ConfigNode production = config.find("production").orElseThrow();
+        assertFalse(production.isLoaded());
+        assertEquals("localhost", production.node("host").get());
+        assertTrue(production.isLoaded());
+        assertFalse(production.node("tls").isLoaded());
+        assertTrue(production.node("tls", "enabled").getAsBoolean());
+
+        config.node("defaults", "port").set(9090);
+        assertEquals(8080, config.node("staging", "server", "port").get());
+        assertSame(config.node("ports").get(), config.node("staging").get());
+        assertEquals(List.of(80, 443), config.node("staging").get());
+        List<?> fallbacks = config.node("fallbacks").getAsList();
+        assertSame(fallbacks.get(0), fallbacks.get(1));
+        assertEquals("localhost", ((Map<?, ?>) fallbacks.get(0)).get("host"));
+    }
+
+    @Test
+    void invalidDocumentTest() throws IOException {
+        Path file = this.directory.resolve("invalid.yml");
+        YamlConfigurationLoader loader = new YamlConfigurationLoader(file);
+        Files.writeString(file, "port: !!int 0x1F\n");
+        assertThrows(ConfigParseException.class, loader::load);
+        Files.writeString(file, "first: 1\n---\nsecond: 2\n");
+        assertThrows(ConfigParseException.class, loader::load);
+        Files.writeString(file, "key: [unclosed\n");
+        assertThrows(ConfigParseException.class, loader::load);
+    }
+
+    @Test
+    void emptyFileTest() throws IOException {
+        Path file = this.directory.resolve("empty.yml");
+        Files.writeString(file, "");
+        assertFalse(new YamlConfigurationLoader(file).load().hasSubNodes());
+    }
+
+    @Test
+    void nullSerializerTest() {
+        SerializerRegistry registry = SerializerRegistry.builder()
+            .register(new Serializer<>(StringBuilder.class) {
+                @Override
+                public StringBuilder deserialize(Object value) {
+                    return new StringBuilder(value.toString());
+                }
+
+                @Override
+                public Object serialize(StringBuilder value, Predicate<Class<?>> typeSupported) {
+                    return null;
+                }
+            })
+            .build();
+        YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
+            .path(this.directory.resolve("config.yml"))
+            .registry(registry)
+            .build();
+        Configuration config = new Configuration();
+        config.node("builder").set(new StringBuilder("abc"));
+        assertThrows(ConfigException.class, () -> loader.save(config));
+    }
+}